@@ -0,0 +1,232 @@
+package com.github.emalock3.common.extension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import lombok.NonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * resolves host names without blocking the calling thread.
+ * <p>
+ * Lookups run on an executor and at most a fixed number of them run at the same time, so an executor
+ * that starts a thread per task, such as one of virtual threads, can be given as well. Concurrent
+ * requests for the same host share one lookup. IP literals are parsed on the calling thread.
+ */
+public final class AsyncHostResolver implements AutoCloseable {
+
+    private static final Logger LOGGER
+            = LoggerFactory.getLogger(AsyncHostResolver.class);
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final HostResolver resolver;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final Optional<ExecutorService> ownedExecutor;
+    private final ConcurrentMap<String, CompletableFuture<InetAddress[]>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver the blocking resolver, e.g. {@link HostResolver#SYSTEM} or
+     *        {@code cache::getAll} of an InetAddressCache
+     * @param executor runs the lookups
+     * @param maxConcurrency the maximum number of lookups running at the same time
+     * @throws IllegalArgumentException if maxConcurrency is not positive
+     */
+    public AsyncHostResolver(@NonNull HostResolver resolver, @NonNull Executor executor, int maxConcurrency)
+            throws IllegalArgumentException {
+        this(resolver, executor, maxConcurrency, Optional.empty());
+    }
+
+    private AsyncHostResolver(HostResolver resolver, Executor executor, int maxConcurrency,
+            Optional<ExecutorService> ownedExecutor) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("maxConcurrency must be positive: %d", maxConcurrency));
+        }
+        this.resolver = resolver;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency);
+        this.ownedExecutor = ownedExecutor;
+    }
+
+    /**
+     * @param resolver the blocking resolver
+     * @param threads the number of daemon threads running the lookups
+     * @return the AsyncHostResolver owning its threads, which are stopped by {@link #close()}
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public static AsyncHostResolver of(@NonNull HostResolver resolver, int threads) throws IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException(String.format("threads must be positive: %d", threads));
+        }
+        String prefix = "AsyncHostResolver-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        return new AsyncHostResolver(resolver, executor, threads, Optional.of(executor));
+    }
+
+    /**
+     * @return the shared AsyncHostResolver using the system resolver on daemon threads
+     */
+    public static AsyncHostResolver getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * @param host the host name or IP literal
+     * @return the first address of the host; completed exceptionally with IllegalArgumentException if the
+     *         host cannot be resolved
+     */
+    public CompletableFuture<InetAddress> resolve(@NonNull CharSequence host) {
+        return map(resolveAll(host), addresses -> addresses[0]);
+    }
+
+    /**
+     * @param host the host name or IP literal
+     * @return all addresses of the host; completed exceptionally with IllegalArgumentException if the
+     *         host cannot be resolved
+     */
+    public CompletableFuture<InetAddress[]> resolveAll(@NonNull CharSequence host) {
+        Optional<InetAddress> literal = InetAddresses.parseLiteral(host);
+        if (literal.isPresent()) {
+            return CompletableFuture.completedFuture(new InetAddress[] {literal.get()});
+        }
+        String name = host.toString();
+        String key = name.toLowerCase(Locale.ENGLISH);
+        CompletableFuture<InetAddress[]> future = inFlight.get(key);
+        if (future == null) {
+            CompletableFuture<InetAddress[]> created = new CompletableFuture<>();
+            future = inFlight.putIfAbsent(key, created);
+            if (future == null) {
+                future = created;
+                submit(name, key, created);
+            }
+        }
+        return map(future, InetAddress[]::clone);
+    }
+
+    /**
+     * @param hosts the host names or IP literals
+     * @return the first address of each resolvable host in the order of hosts; hosts that cannot be
+     *         resolved are left out
+     */
+    public CompletableFuture<Map<String, InetAddress>> resolveBatch(@NonNull Collection<? extends CharSequence> hosts) {
+        List<String> names = new ArrayList<>(hosts.size());
+        List<CompletableFuture<InetAddress>> futures = new ArrayList<>(hosts.size());
+        for (CharSequence host : hosts) {
+            names.add(host.toString());
+            futures.add(resolve(host).handle((address, e) -> {
+                if (e != null) {
+                    LOGGER.debug("failed to resolve {}", host, e);
+                }
+                return address;
+            }));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(v -> {
+            Map<String, InetAddress> resolved = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                InetAddress address = futures.get(i).join();
+                if (address != null) {
+                    resolved.putIfAbsent(names.get(i), address);
+                }
+            }
+            return resolved;
+        });
+    }
+
+    /**
+     * @return the number of lookups submitted and not finished yet
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * stops the threads created by {@link #of(HostResolver, int)} and fails the lookups they have not
+     * finished; a given executor is left running.
+     */
+    @Override
+    public void close() {
+        ownedExecutor.ifPresent(executorService -> {
+            executorService.shutdownNow();
+            inFlight.values().forEach(future -> future.completeExceptionally(
+                    new IllegalStateException("AsyncHostResolver is closed")));
+        });
+    }
+
+    /**
+     * unlike thenApply, which wraps the failure in a CompletionException, passes the failure of source
+     * through as it is.
+     */
+    private static <T, R> CompletableFuture<R> map(CompletableFuture<T> source, Function<? super T, ? extends R> fn) {
+        CompletableFuture<R> mapped = new CompletableFuture<>();
+        source.whenComplete((value, e) -> {
+            if (e != null) {
+                mapped.completeExceptionally(e);
+            } else {
+                mapped.complete(fn.apply(value));
+            }
+        });
+        return mapped;
+    }
+
+    private void submit(String name, String key, CompletableFuture<InetAddress[]> future) {
+        future.whenComplete((addresses, e) -> inFlight.remove(key, future));
+        try {
+            executor.execute(() -> lookUp(name, future));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void lookUp(String name, CompletableFuture<InetAddress[]> future) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+        try {
+            InetAddress[] addresses = resolver.resolve(name);
+            if (addresses == null || addresses.length == 0) {
+                throw new UnknownHostException(name);
+            }
+            future.complete(addresses.clone());
+        } catch (UnknownHostException e) {
+            future.completeExceptionally(new IllegalArgumentException(e));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static final class DefaultHolder {
+
+        private static final AsyncHostResolver INSTANCE
+                = of(HostResolver.SYSTEM, Runtime.getRuntime().availableProcessors() * 4);
+    }
+}
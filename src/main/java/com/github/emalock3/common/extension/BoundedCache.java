@@ -0,0 +1,90 @@
+package com.github.emalock3.common.extension;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * a concurrent map that stops growing at a maximum size.
+ * <p>
+ * When an insertion would exceed the maximum size, about an eighth of the entries are evicted in
+ * iteration order, which for a hash map is close to random. This keeps lookups lock-free and costs
+ * nothing until the cache is full.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+final class BoundedCache<K, V> {
+
+    private final ConcurrentMap<K, V> map = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    /**
+     * @param maxSize the maximum number of entries
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    BoundedCache(int maxSize) throws IllegalArgumentException {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException(String.format("maxSize must be positive: %d", maxSize));
+        }
+        this.maxSize = maxSize;
+    }
+
+    V get(K key) {
+        return map.get(key);
+    }
+
+    void put(K key, V value) {
+        makeRoom();
+        map.put(key, value);
+    }
+
+    /**
+     * The function is not called under a lock, so it may run more than once for the same key.
+     *
+     * @param key
+     * @param function computes the value of a missing key
+     * @return the cached or computed value
+     */
+    V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        V value = map.get(key);
+        if (value == null) {
+            value = function.apply(key);
+            makeRoom();
+            V current = map.putIfAbsent(key, value);
+            if (current != null) {
+                return current;
+            }
+        }
+        return value;
+    }
+
+    void remove(K key) {
+        map.remove(key);
+    }
+
+    void removeIf(Predicate<? super V> predicate) {
+        map.values().removeIf(predicate);
+    }
+
+    void clear() {
+        map.clear();
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    private void makeRoom() {
+        if (map.size() < maxSize) {
+            return;
+        }
+        int toEvict = Math.max(1, maxSize / 8);
+        for (Iterator<K> it = map.keySet().iterator(); it.hasNext() && toEvict > 0; toEvict--) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.emalock3.common.extension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.util.Optional;
+
+import lombok.NonNull;
+
+/**
+ * reads the bytes of a CharSequence, encoding it as the bytes are read.
+ * <p>
+ * Only a buffer of a fixed size is held besides the CharSequence itself, so a huge CharSequence is never
+ * copied into a String or a byte array. Malformed and unmappable characters are replaced like
+ * {@link String#getBytes(Charset)}. Marking is not supported.
+ */
+public final class CharSequenceInputStream extends InputStream {
+
+    private final CharsetEncoder encoder;
+    private CharBuffer in;
+    private ByteBuffer buffer;
+    private boolean flushed;
+
+    /**
+     * @param cs the CharSequence to read
+     * @param charsetOpt
+     */
+    public CharSequenceInputStream(CharSequence cs, Optional<Charset> charsetOpt) {
+        this(cs, charsetOpt, ChunkedEncoder.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param cs the CharSequence to read
+     * @param charsetOpt
+     * @param bufferSize the size of the byte buffer
+     * @throws IllegalArgumentException if bufferSize is too small for one character
+     */
+    public CharSequenceInputStream(@NonNull CharSequence cs, @NonNull Optional<Charset> charsetOpt, int bufferSize)
+            throws IllegalArgumentException {
+        this.encoder = CharsetCache.newEncoder(charsetOpt.orElse(StringExtensions.DEFAULT_CHARSET));
+        if (bufferSize < encoder.maxBytesPerChar() * 2) {
+            throw new IllegalArgumentException(String.format("bufferSize is too small: %d", bufferSize));
+        }
+        this.in = CharBuffer.wrap(cs);
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException(String.format("off=%d, len=%d, length=%d", off, len, b.length));
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < len) {
+            if (buffer.hasRemaining()) {
+                int n = Math.min(len - read, buffer.remaining());
+                buffer.get(b, off + read, n);
+                read += n;
+            } else if (len - read >= buffer.capacity()) {
+                // a large read is encoded straight into the caller's array
+                ByteBuffer dst = ByteBuffer.wrap(b, off + read, len - read);
+                if (!encode(dst)) {
+                    break;
+                }
+                read = dst.position() - off;
+            } else if (!fill()) {
+                break;
+            }
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        long skipped = 0;
+        while (skipped < n && (buffer.hasRemaining() || fill())) {
+            int step = (int) Math.min(n - skipped, buffer.remaining());
+            buffer.position(buffer.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    /**
+     * @return the number of bytes encoded ahead and not read yet
+     */
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return buffer.remaining();
+    }
+
+    /**
+     * Writes the remaining bytes to out, one buffer at a time.
+     *
+     * @param out
+     * @return the number of bytes written
+     * @throws IOException
+     */
+    public long transferTo(@NonNull OutputStream out) throws IOException {
+        ensureOpen();
+        long transferred = 0;
+        while (buffer.hasRemaining() || fill()) {
+            int n = buffer.remaining();
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), n);
+            buffer.position(buffer.limit());
+            transferred += n;
+        }
+        return transferred;
+    }
+
+    /**
+     * releases the CharSequence and the buffer.
+     */
+    @Override
+    public void close() {
+        in = null;
+        buffer = null;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * @return false if there are no more bytes
+     */
+    private boolean fill() {
+        buffer.clear();
+        boolean more = true;
+        while (more && buffer.position() == 0) {
+            more = encode(buffer);
+        }
+        buffer.flip();
+        return buffer.hasRemaining();
+    }
+
+    /**
+     * @param dst
+     * @return false if there were no more bytes to encode
+     */
+    private boolean encode(ByteBuffer dst) {
+        if (flushed) {
+            return false;
+        }
+        int start = dst.position();
+        CoderResult cr = encoder.encode(in, dst, true);
+        ChunkedEncoder.checkResult(cr);
+        if (cr.isUnderflow()) {
+            cr = encoder.flush(dst);
+            ChunkedEncoder.checkResult(cr);
+            flushed = cr.isUnderflow();
+        }
+        return dst.position() > start || !flushed;
+    }
+}
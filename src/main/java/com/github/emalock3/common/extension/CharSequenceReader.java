@@ -0,0 +1,129 @@
+package com.github.emalock3.common.extension;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import lombok.NonNull;
+
+/**
+ * reads the characters of a CharSequence without copying it.
+ * <p>
+ * Characters are copied in bulk with getChars when the CharSequence is a String, a StringBuilder,
+ * a StringBuffer or a CharBuffer, and one by one with charAt otherwise. Like
+ * {@link java.io.StringReader}, changes made to a mutable CharSequence while it is read are visible
+ * to the reader.
+ */
+public final class CharSequenceReader extends Reader {
+
+    private CharSequence cs;
+    private int next;
+    private int mark;
+
+    /**
+     * @param cs the CharSequence to read
+     */
+    public CharSequenceReader(@NonNull CharSequence cs) {
+        this.cs = cs;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (next >= cs.length()) {
+            return -1;
+        }
+        return cs.charAt(next++);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || len > cbuf.length - off) {
+            throw new IndexOutOfBoundsException(String.format("off=%d, len=%d, length=%d", off, len, cbuf.length));
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int length = cs.length();
+        if (next >= length) {
+            return -1;
+        }
+        int n = Math.min(len, length - next);
+        getChars(next, next + n, cbuf, off);
+        next += n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        int length = cs.length();
+        if (next >= length) {
+            return 0;
+        }
+        // negative values skip backwards like StringReader
+        long skipped = Math.max(-next, Math.min(length - next, n));
+        next += (int) skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        ensureOpen();
+        return true;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    /**
+     * @param readAheadLimit ignored because the whole CharSequence stays available
+     */
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        if (readAheadLimit < 0) {
+            throw new IllegalArgumentException(String.format("Read-ahead limit < 0: %d", readAheadLimit));
+        }
+        ensureOpen();
+        mark = next;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        ensureOpen();
+        next = mark;
+    }
+
+    @Override
+    public void close() {
+        cs = null;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (cs == null) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void getChars(int start, int end, char[] dst, int dstBegin) {
+        if (cs instanceof String) {
+            ((String) cs).getChars(start, end, dst, dstBegin);
+        } else if (cs instanceof StringBuilder) {
+            ((StringBuilder) cs).getChars(start, end, dst, dstBegin);
+        } else if (cs instanceof StringBuffer) {
+            ((StringBuffer) cs).getChars(start, end, dst, dstBegin);
+        } else if (cs instanceof CharBuffer) {
+            // a duplicate keeps the position of the caller's buffer untouched
+            CharBuffer duplicate = ((CharBuffer) cs).duplicate();
+            duplicate.position(duplicate.position() + start);
+            duplicate.get(dst, dstBegin, end - start);
+        } else {
+            for (int i = start; i < end; i++) {
+                dst[dstBegin++] = cs.charAt(i);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.emalock3.common.extension;
+
+import lombok.NonNull;
+
+/**
+ * a view of a range of another CharSequence, without copying its characters.
+ * <p>
+ * The tokenizers of {@link StringExtensions} reuse a single CharSlice for every field, so a slice passed
+ * to a callback is valid only during the callback; call {@link #toString()} to keep its content. The
+ * source must not be modified while the slice is used.
+ *
+ * @see StringExtensions#forEachField(CharSequence, char, java.util.function.Consumer)
+ */
+public final class CharSlice implements CharSequence {
+
+    private CharSequence source;
+    private int start;
+    private int end;
+
+    /**
+     * @param source the CharSequence to view
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @throws IndexOutOfBoundsException if the range is not within source
+     */
+    public CharSlice(@NonNull CharSequence source, int start, int end) throws IndexOutOfBoundsException {
+        checkRange(start, end, source.length());
+        reset(source, start, end);
+    }
+
+    CharSlice reset(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * @return the viewed CharSequence
+     */
+    public CharSequence getSource() {
+        return source;
+    }
+
+    /**
+     * @return the index of the first character in the source
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index after the last character in the source
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException(String.format("index=%d, length=%d", index, end - start));
+        }
+        return source.charAt(start + index);
+    }
+
+    /**
+     * @return a new CharSlice of the same source
+     */
+    @Override
+    public CharSlice subSequence(int start, int end) {
+        checkRange(start, end, this.end - this.start);
+        return new CharSlice(source, this.start + start, this.start + end);
+    }
+
+    /**
+     * @param cs the CharSequence to compare with
+     * @return true if cs has the same characters as this slice
+     */
+    public boolean contentEquals(@NonNull CharSequence cs) {
+        int length = end - start;
+        if (cs.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(start + i) != cs.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (source instanceof String) {
+            return ((String) source).substring(start, end);
+        }
+        // the subSequence of a source such as MappedCharSequence may be a CharSlice itself
+        return new StringBuilder(end - start).append(source, start, end).toString();
+    }
+
+    private static void checkRange(int start, int end, int length) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(String.format("start=%d, end=%d, length=%d", start, end, length));
+        }
+    }
+}
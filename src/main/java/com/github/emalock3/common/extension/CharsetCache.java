@@ -0,0 +1,112 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * caches Charset lookups by name and keeps reusable encoders and decoders for each thread.
+ * <p>
+ * The encoders and decoders replace malformed and unmappable input like {@link String#getBytes(Charset)}
+ * and {@link String#String(byte[], Charset)}. A thread-local instance must be used up before any code that
+ * may encode or decode on the same thread runs, so it must not be held across a user callback.
+ */
+final class CharsetCache {
+
+    /** the number of names cached; more names are still resolved, just not cached. */
+    private static final int MAX_NAMES = 256;
+
+    /** the number of charsets for which each thread keeps an encoder and a decoder. */
+    private static final int SLOTS = 4;
+
+    private static final ConcurrentMap<String, Charset> CHARSETS = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Coders> LOCAL_CODERS = ThreadLocal.withInitial(Coders::new);
+
+    private CharsetCache() {
+    }
+
+    /**
+     * @param name the charset name or alias
+     * @return the Charset
+     * @throws IllegalArgumentException if the name is illegal or unsupported
+     * @see Charset#forName(String)
+     */
+    static Charset forName(String name) throws IllegalArgumentException {
+        Charset charset = CHARSETS.get(name);
+        if (charset == null) {
+            charset = Charset.forName(name);
+            if (CHARSETS.size() < MAX_NAMES) {
+                CHARSETS.putIfAbsent(name, charset);
+            }
+        }
+        return charset;
+    }
+
+    /**
+     * @param charset
+     * @return a new encoder replacing malformed and unmappable input
+     */
+    static CharsetEncoder newEncoder(Charset charset) {
+        return charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * @param charset
+     * @return a new decoder replacing malformed and unmappable input
+     */
+    static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * @param charset
+     * @return the reset encoder of the calling thread for the charset
+     */
+    static CharsetEncoder encoder(Charset charset) {
+        Coders coders = LOCAL_CODERS.get();
+        for (int i = 0; i < SLOTS; i++) {
+            CharsetEncoder encoder = coders.encoders[i];
+            if (encoder != null && encoder.charset().equals(charset)) {
+                return encoder.reset();
+            }
+        }
+        CharsetEncoder encoder = newEncoder(charset);
+        coders.encoders[coders.nextEncoder] = encoder;
+        coders.nextEncoder = (coders.nextEncoder + 1) % SLOTS;
+        return encoder;
+    }
+
+    /**
+     * @param charset
+     * @return the reset decoder of the calling thread for the charset
+     */
+    static CharsetDecoder decoder(Charset charset) {
+        Coders coders = LOCAL_CODERS.get();
+        for (int i = 0; i < SLOTS; i++) {
+            CharsetDecoder decoder = coders.decoders[i];
+            if (decoder != null && decoder.charset().equals(charset)) {
+                return decoder.reset();
+            }
+        }
+        CharsetDecoder decoder = newDecoder(charset);
+        coders.decoders[coders.nextDecoder] = decoder;
+        coders.nextDecoder = (coders.nextDecoder + 1) % SLOTS;
+        return decoder;
+    }
+
+    private static final class Coders {
+
+        private final CharsetEncoder[] encoders = new CharsetEncoder[SLOTS];
+        private final CharsetDecoder[] decoders = new CharsetDecoder[SLOTS];
+        private int nextEncoder;
+        private int nextDecoder;
+    }
+}
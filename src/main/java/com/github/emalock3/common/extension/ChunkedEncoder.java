@@ -0,0 +1,203 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * encodes a CharSequence in fixed-size chunks without materializing the whole byte array.
+ */
+final class ChunkedEncoder {
+
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** the capacity up to which a direct output buffer is kept for the next call on the same thread. */
+    private static final int MAX_LOCAL_OUTPUT_SIZE = 4 * DEFAULT_CHUNK_SIZE;
+
+    private static final ThreadLocal<ByteBuffer> LOCAL_CHUNK
+            = ThreadLocal.withInitial(() -> ByteBuffer.allocate(DEFAULT_CHUNK_SIZE));
+
+    private static final ThreadLocal<ByteBuffer[]> LOCAL_OUTPUT = ThreadLocal.withInitial(() -> new ByteBuffer[1]);
+
+    private ChunkedEncoder() {
+    }
+
+    /**
+     * The buffer must not be used by a consumer that encodes on the same thread.
+     *
+     * @return the chunk buffer of the calling thread
+     */
+    static ByteBuffer localChunk() {
+        return LOCAL_CHUNK.get();
+    }
+
+    /**
+     * Takes the direct output buffer of the calling thread, or allocates one if it is missing, smaller than
+     * size or already taken by a caller further up the stack. Give it back by {@link #releaseOutput(ByteBuffer)}.
+     *
+     * @param size the minimum capacity
+     * @return a cleared direct buffer
+     */
+    static ByteBuffer takeOutput(int size) {
+        ByteBuffer[] slot = LOCAL_OUTPUT.get();
+        ByteBuffer buffer = slot[0];
+        slot[0] = null;
+        if (buffer == null || buffer.capacity() < size) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * @param buffer the buffer taken by {@link #takeOutput(int)}, kept unless it is too large
+     */
+    static void releaseOutput(ByteBuffer buffer) {
+        if (buffer.capacity() <= MAX_LOCAL_OUTPUT_SIZE) {
+            LOCAL_OUTPUT.get()[0] = buffer;
+        }
+    }
+
+    /**
+     * receives the encoded bytes of one chunk.
+     *
+     * @param <E> the exception type thrown by the consumer
+     */
+    @FunctionalInterface
+    interface ChunkConsumer<E extends Exception> {
+
+        /**
+         * @param chunk the encoded bytes; all remaining bytes must be consumed
+         * @throws E
+         */
+        void accept(ByteBuffer chunk) throws E;
+    }
+
+    /**
+     * Encodes as many characters as fit into dst. A surrogate pair is never split.
+     * The encoder state is not carried over between calls, so resuming is exact only for
+     * stateless charsets such as UTF-8 or ISO-8859-1.
+     *
+     * @param cs the CharSequence to encode
+     * @param fromIndex the index of the first character to encode
+     * @param dst the buffer receiving the bytes from its position
+     * @param charset
+     * @return the index of the first character not encoded, cs.length() when every character was encoded
+     */
+    static int encode(CharSequence cs, int fromIndex, ByteBuffer dst, Charset charset) {
+        int length = cs.length();
+        int limit = asciiCompatibleLimit(charset);
+        int i = limit == 0 ? fromIndex : encodeSingleBytes(cs, fromIndex, dst, limit);
+        if (i == length || !dst.hasRemaining()) {
+            return i;
+        }
+        CharsetEncoder encoder = CharsetCache.encoder(charset);
+        CharBuffer in = CharBuffer.wrap(cs, i, length);
+        int start = dst.position();
+        encoder.reset();
+        CoderResult cr = encoder.encode(in, dst, true);
+        checkResult(cr);
+        if (cr.isUnderflow()) {
+            cr = encoder.flush(dst);
+            checkResult(cr);
+            if (cr.isOverflow()) {
+                // the trailing bytes of a stateful charset do not fit; retry the run with a larger buffer
+                dst.position(start);
+                return i;
+            }
+        }
+        return in.position();
+    }
+
+    /**
+     * @param charset
+     * @return true if {@link #encode(CharSequence, int, ByteBuffer, Charset)} resumes exactly for the charset
+     */
+    static boolean isResumable(Charset charset) {
+        return asciiCompatibleLimit(charset) != 0;
+    }
+
+    /**
+     * @param charset
+     * @return the exclusive upper bound of the characters encoded as one identical byte, or 0
+     */
+    private static int asciiCompatibleLimit(Charset charset) {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            return 0x100;
+        }
+        if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)) {
+            return 0x80;
+        }
+        return 0;
+    }
+
+    private static int encodeSingleBytes(CharSequence cs, int fromIndex, ByteBuffer dst, int limit) {
+        int end = Math.min(cs.length(), fromIndex + dst.remaining());
+        int i = fromIndex;
+        if (dst.hasArray()) {
+            byte[] array = dst.array();
+            int offset = dst.arrayOffset() + dst.position() - fromIndex;
+            for (char c; i < end && (c = cs.charAt(i)) < limit; i++) {
+                array[offset + i] = (byte) c;
+            }
+            dst.position(dst.position() + i - fromIndex);
+        } else {
+            for (char c; i < end && (c = cs.charAt(i)) < limit; i++) {
+                dst.put((byte) c);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @param <E> the exception type thrown by the consumer
+     * @param cs the CharSequence to encode
+     * @param encoder the encoder, reset before use
+     * @param buffer the chunk buffer handed to the consumer
+     * @param consumer
+     * @throws E
+     */
+    static <E extends Exception> void encode(CharSequence cs, CharsetEncoder encoder, ByteBuffer buffer,
+            ChunkConsumer<E> consumer) throws E {
+        CharBuffer in = CharBuffer.wrap(cs);
+        encoder.reset();
+        buffer.clear();
+        CoderResult cr;
+        do {
+            cr = encoder.encode(in, buffer, true);
+            checkResult(cr);
+            drain(buffer, consumer);
+        } while (cr.isOverflow());
+        do {
+            cr = encoder.flush(buffer);
+            checkResult(cr);
+            drain(buffer, consumer);
+        } while (cr.isOverflow());
+    }
+
+    private static <E extends Exception> void drain(ByteBuffer buffer, ChunkConsumer<E> consumer) throws E {
+        buffer.flip();
+        if (buffer.hasRemaining()) {
+            consumer.accept(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @param cr
+     * @throws IllegalArgumentException if cr is an error
+     */
+    static void checkResult(CoderResult cr) throws IllegalArgumentException {
+        if (cr.isError()) {
+            try {
+                cr.throwException();
+            } catch (CharacterCodingException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+}
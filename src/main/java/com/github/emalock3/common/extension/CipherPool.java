@@ -0,0 +1,251 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.security.GeneralSecurityException;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.Provider;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Cipher;
+
+import lombok.NonNull;
+
+/**
+ * pools javax.crypto.Cipher instances per transformation and provider.
+ * <p>
+ * Instances are created by {@link StringExtensions#toCipher(CharSequence, Optional)} only when the
+ * pool is empty, so the provider search is paid once per instance instead of once per message.
+ * Every borrowed Cipher is initialized again with the caller's key and parameters, so a fresh IV
+ * never meets the state of a previous operation.
+ * <p>
+ * The pools returned by {@link #of(CharSequence, Optional)} are shared, up to 64 pairs of transformation and
+ * provider. Each keeps its idle Cipher instances, and with them the key of their last operation, reachable
+ * until it is evicted or {@link #clear()} is called. An evicted pool keeps working for the callers that hold it.
+ */
+public final class CipherPool {
+
+    private static final int MAX_POOLS = 64;
+
+    private static final BoundedCache<PoolKey, CipherPool> POOLS = new BoundedCache<>(MAX_POOLS);
+
+    private static final int DEFAULT_MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+
+    private final String transformation;
+    private final Optional<Provider> providerOpt;
+    private final ConcurrentLinkedDeque<Cipher> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    private CipherPool(String transformation, Optional<Provider> providerOpt, int maxIdle) {
+        this.transformation = transformation;
+        this.providerOpt = providerOpt;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * @param transformation
+     * @return the shared pool for the transformation
+     * @throws IllegalArgumentException if the transformation is unavailable
+     */
+    public static CipherPool of(CharSequence transformation) throws IllegalArgumentException {
+        return of(transformation, Optional.empty());
+    }
+
+    /**
+     * @param transformation
+     * @param providerOpt
+     * @return the shared pool for the transformation and provider
+     * @throws IllegalArgumentException if the transformation is unavailable
+     */
+    public static CipherPool of(@NonNull CharSequence transformation, @NonNull Optional<Provider> providerOpt)
+            throws IllegalArgumentException {
+        return POOLS.computeIfAbsent(new PoolKey(transformation.toString(), providerOpt), k -> {
+            CipherPool created = new CipherPool(k.transformation, providerOpt, DEFAULT_MAX_IDLE);
+            created.release(created.create());
+            return created;
+        });
+    }
+
+    /**
+     * removes every shared pool together with its idle Cipher instances.
+     */
+    public static void clear() {
+        POOLS.clear();
+    }
+
+    static int poolCount() {
+        return POOLS.size();
+    }
+
+    /**
+     * @return the transformation
+     */
+    public String getTransformation() {
+        return transformation;
+    }
+
+    /**
+     * The Cipher must be given back by {@link #release(Cipher)} once the operation is finished.
+     *
+     * @param opmode the operation mode of Cipher
+     * @param key
+     * @param paramsOpt the parameters such as the IV; when empty the provider may generate them,
+     *            and they can be read with Cipher#getIV() or Cipher#getParameters() before the release
+     * @return the Cipher initialized for the operation
+     * @throws IllegalArgumentException if the key or the parameters are invalid
+     */
+    public Cipher borrow(int opmode, @NonNull Key key, @NonNull Optional<AlgorithmParameterSpec> paramsOpt)
+            throws IllegalArgumentException {
+        Cipher cipher = idle.pollFirst();
+        if (cipher == null) {
+            cipher = create();
+        } else {
+            idleCount.decrementAndGet();
+        }
+        try {
+            if (paramsOpt.isPresent()) {
+                cipher.init(opmode, key, paramsOpt.get());
+            } else {
+                cipher.init(opmode, key);
+            }
+            return cipher;
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+            release(cipher);
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @param cipher the Cipher borrowed from this pool
+     */
+    public void release(@NonNull Cipher cipher) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offerFirst(cipher);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * A Cipher whose operation fails is dropped instead of being given back to the pool.
+     *
+     * @param opmode the operation mode of Cipher
+     * @param key
+     * @param paramsOpt the parameters such as the IV; required when the mode uses them
+     * @param input
+     * @return the result of Cipher#doFinal(byte[])
+     * @throws IllegalArgumentException if the operation fails, or if paramsOpt is empty and the provider
+     *             generated an IV that the caller could not read; use {@link #borrow(int, Key, Optional)} then
+     */
+    public byte[] doFinal(int opmode, Key key, Optional<AlgorithmParameterSpec> paramsOpt, @NonNull byte[] input)
+            throws IllegalArgumentException {
+        Cipher cipher = borrowWithParams(opmode, key, paramsOpt);
+        byte[] result;
+        try {
+            result = cipher.doFinal(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e);
+        }
+        release(cipher);
+        return result;
+    }
+
+    /**
+     * @param cs the CharSequence to encrypt
+     * @param key
+     * @param paramsOpt
+     * @param out the buffer receiving the cipher text
+     * @return the number of bytes written, or a negative number when out is too small
+     * @throws IllegalArgumentException if the operation fails
+     * @see #encrypt(CharSequence, Key, Optional, ByteBuffer, Optional)
+     */
+    public int encrypt(CharSequence cs, Key key, Optional<AlgorithmParameterSpec> paramsOpt, ByteBuffer out)
+            throws IllegalArgumentException {
+        return encrypt(cs, key, paramsOpt, out, StringExtensions.DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Encrypts the encoded CharSequence straight into the caller's buffer without creating byte arrays.
+     * <p>
+     * Like a non-blocking write, a buffer that is too small is not an error: nothing is consumed,
+     * the position of out is left unchanged and the negated size of a buffer that is large enough
+     * is returned. Retrying with the same parameters reproduces the same cipher text. The Cipher is
+     * dropped instead of being given back to the pool whenever the operation does not succeed.
+     *
+     * @param cs the CharSequence to encrypt
+     * @param key
+     * @param paramsOpt the parameters such as the IV; required when the mode uses them
+     * @param out the buffer receiving the cipher text
+     * @param charsetOpt
+     * @return the number of bytes written, or a negative number when out is too small
+     * @throws IllegalArgumentException if the operation fails, or if paramsOpt is empty and the provider
+     *             generated an IV that the caller could not read
+     */
+    public int encrypt(@NonNull CharSequence cs, Key key, Optional<AlgorithmParameterSpec> paramsOpt,
+            @NonNull ByteBuffer out, @NonNull Optional<Charset> charsetOpt) throws IllegalArgumentException {
+        Cipher cipher = borrowWithParams(Cipher.ENCRYPT_MODE, key, paramsOpt);
+        try {
+            int written = StringExtensions.encrypt(cs, cipher, out, charsetOpt);
+            release(cipher);
+            return written;
+        } catch (BufferOverflowException e) {
+            CharsetEncoder encoder = CharsetCache.encoder(charsetOpt.orElse(StringExtensions.DEFAULT_CHARSET));
+            long maxBytes = (long) Math.ceil(encoder.maxBytesPerChar() * (double) cs.length());
+            // the instance is dropped: providers refuse to re-init it with the IV it has just used
+            return -cipher.getOutputSize((int) Math.min(maxBytes, Integer.MAX_VALUE - 1024));
+        }
+    }
+
+    /**
+     * rejects an operation whose generated IV would be lost with the released Cipher, since its output
+     * could never be decrypted.
+     */
+    private Cipher borrowWithParams(int opmode, Key key, Optional<AlgorithmParameterSpec> paramsOpt)
+            throws IllegalArgumentException {
+        Cipher cipher = borrow(opmode, key, paramsOpt);
+        if (!paramsOpt.isPresent() && cipher.getIV() != null) {
+            release(cipher);
+            throw new IllegalArgumentException(String.format(
+                    "%s needs parameters such as the IV; give them in paramsOpt", transformation));
+        }
+        return cipher;
+    }
+
+    private Cipher create() {
+        return StringExtensions.toCipher(transformation, providerOpt);
+    }
+
+    private static final class PoolKey {
+
+        private final String transformation;
+        private final Provider provider;
+
+        PoolKey(String transformation, Optional<Provider> providerOpt) {
+            this.transformation = transformation;
+            this.provider = providerOpt.orElse(null);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) obj;
+            return transformation.equals(other.transformation) && provider == other.provider;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(transformation, System.identityHashCode(provider));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.emalock3.common.extension;
+
+import java.util.function.Consumer;
+
+/**
+ * splits a CSV record into fields as RFC 4180 describes.
+ * <p>
+ * A field enclosed in double quotes may contain the delimiter, line breaks and doubled quotes. Such a field
+ * is viewed in place unless it contains a doubled quote, in which case it is unescaped into a StringBuilder
+ * that is reused for the following fields.
+ */
+final class CsvFields {
+
+    private static final char QUOTE = '"';
+
+    private CsvFields() {
+    }
+
+    /**
+     * @param cs the record
+     * @param delimiter
+     * @param consumer
+     * @throws IllegalArgumentException if a quoted field is not closed or is followed by anything but the delimiter
+     */
+    static void forEach(CharSequence cs, char delimiter, Consumer<CharSlice> consumer) throws IllegalArgumentException {
+        CharSlice slice = new CharSlice(cs, 0, 0);
+        StringBuilder unescaped = null;
+        int length = cs.length();
+        int i = 0;
+        while (true) {
+            int next;
+            if (i < length && cs.charAt(i) == QUOTE) {
+                int close = i + 1;
+                boolean escaped = false;
+                while (true) {
+                    if (close >= length) {
+                        throw new IllegalArgumentException(String.format("unclosed quoted field at index %d", i));
+                    }
+                    if (cs.charAt(close) == QUOTE) {
+                        if (close + 1 < length && cs.charAt(close + 1) == QUOTE) {
+                            escaped = true;
+                            close += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    close++;
+                }
+                next = close + 1;
+                if (next < length && cs.charAt(next) != delimiter) {
+                    throw new IllegalArgumentException(String.format(
+                            "unexpected character after a quoted field at index %d", next));
+                }
+                if (escaped) {
+                    if (unescaped == null) {
+                        unescaped = new StringBuilder(close - i);
+                    }
+                    unescaped.setLength(0);
+                    for (int j = i + 1; j < close; j++) {
+                        char c = cs.charAt(j);
+                        unescaped.append(c);
+                        if (c == QUOTE) {
+                            j++;
+                        }
+                    }
+                    slice.reset(unescaped, 0, unescaped.length());
+                } else {
+                    slice.reset(cs, i + 1, close);
+                }
+            } else {
+                next = i;
+                while (next < length && cs.charAt(next) != delimiter) {
+                    next++;
+                }
+                slice.reset(cs, i, next);
+            }
+            consumer.accept(slice);
+            if (next >= length) {
+                return;
+            }
+            i = next + 1;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.github.emalock3.common.extension;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Formattable;
+import java.util.Formatter;
+import java.util.Locale;
+
+import lombok.NonNull;
+
+/**
+ * a format string for java.util.Formatter, parsed once and cached by the format string and the Locale.
+ * <p>
+ * A template that consists only of text, {@code %%}, {@code %n} and the conversions {@code %s},
+ * {@code %d}, {@code %x}, {@code %f} and {@code %.Nf} without flags, width or argument index is
+ * rendered without Formatter. Any other template, or an argument that the fast path does not handle
+ * (such as a Formattable, a BigDecimal or a digit of a non-Latin script), is rendered by Formatter,
+ * so the output and the exceptions are always the same as {@link String#format(Locale, String, Object...)}.
+ */
+public final class FormatTemplate {
+
+    private static final int MAX_CACHED_TEMPLATES = 1024;
+
+    private static final int MAX_RETAINED_CAPACITY = 8192;
+
+    private static final int MAX_PRECISION_DIGITS = 3;
+
+    private static final int DEFAULT_PRECISION = 6;
+
+    private static final int OBJECTS = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+
+    private static final BoundedCache<Key, FormatTemplate> CACHE = new BoundedCache<>(MAX_CACHED_TEMPLATES);
+
+    private static final ThreadLocal<LocalBuilder> LOCAL_BUILDER = ThreadLocal.withInitial(LocalBuilder::new);
+
+    private final String format;
+    private final Locale locale;
+    /** the text around the conversions, or null if the template is rendered by Formatter. */
+    private final String[] texts;
+    private final char[] conversions;
+    /** the precision of each conversion, or -1 if it has none. */
+    private final int[] precisions;
+    private final boolean latinDigits;
+    private final char decimalSeparator;
+
+    private FormatTemplate(String format, Locale locale) {
+        this.format = format;
+        this.locale = locale;
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        this.latinDigits = symbols.getZeroDigit() == '0';
+        this.decimalSeparator = locale.equals(Locale.US) ? '.' : symbols.getDecimalSeparator();
+        int count = countConversions(format);
+        if (count < 0) {
+            this.texts = null;
+            this.conversions = null;
+            this.precisions = null;
+        } else {
+            this.texts = new String[count + 1];
+            this.conversions = new char[count];
+            this.precisions = new int[count];
+            compile(format);
+        }
+    }
+
+    /**
+     * @param format the format string
+     * @return the template for the default Locale for formatting
+     * @see Locale.Category#FORMAT
+     */
+    public static FormatTemplate of(@NonNull CharSequence format) {
+        return of(format, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * @param format the format string
+     * @param locale the Locale
+     * @return the cached or newly parsed template
+     */
+    public static FormatTemplate of(@NonNull CharSequence format, @NonNull Locale locale) {
+        String f = format.toString();
+        return CACHE.computeIfAbsent(new Key(f, locale), key -> new FormatTemplate(f, locale));
+    }
+
+    /**
+     * @param args the arguments
+     * @return the formatted String
+     * @throws java.util.IllegalFormatException as String.format does
+     * @see String#format(Locale, String, Object...)
+     */
+    public String format(Object... args) {
+        LocalBuilder local = LOCAL_BUILDER.get();
+        StringBuilder sb = local.acquire();
+        try {
+            return formatTo(sb, args).toString();
+        } finally {
+            local.release(sb);
+        }
+    }
+
+    /**
+     * @param sb the StringBuilder to append to
+     * @param args the arguments
+     * @return sb
+     * @throws java.util.IllegalFormatException as String.format does
+     * @see Formatter#format(String, Object...)
+     */
+    public StringBuilder formatTo(@NonNull StringBuilder sb, Object... args) {
+        int start = sb.length();
+        if (texts != null && args != null && args.length >= conversions.length) {
+            sb.append(texts[0]);
+            int i = 0;
+            while (i < conversions.length && append(sb, conversions[i], precisions[i], args[i])) {
+                sb.append(texts[++i]);
+            }
+            if (i == conversions.length) {
+                return sb;
+            }
+            sb.setLength(start);
+        }
+        new Formatter(sb, locale).format(format, args);
+        return sb;
+    }
+
+    /**
+     * A StringBuilder is appended to directly; other Appendables receive the formatted text in one call.
+     * <p>
+     * The overloads taking a single int, long or double format it without boxing when the template allows.
+     * The overloads taking a char, byte, short or float box it, since widening would change how conversions
+     * such as %s and %x format it.
+     *
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param args the arguments
+     * @return out
+     * @throws java.util.IllegalFormatException as String.format does
+     * @throws UncheckedIOException if out throws IOException
+     * @throws java.nio.BufferOverflowException if out is a CharBuffer without enough room
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, Object... args) throws UncheckedIOException {
+        return appendTo(out, OBJECTS, args, 0, 0);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, int value) throws UncheckedIOException {
+        return appendTo(out, INT, null, value, 0);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, long value) throws UncheckedIOException {
+        return appendTo(out, LONG, null, value, 0);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, double value) throws UncheckedIOException {
+        return appendTo(out, DOUBLE, null, 0, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, char value) throws UncheckedIOException {
+        return formatTo(out, new Object[] { value });
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, byte value) throws UncheckedIOException {
+        return formatTo(out, new Object[] { value });
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, short value) throws UncheckedIOException {
+        return formatTo(out, new Object[] { value });
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param out the Appendable to append to
+     * @param value the argument
+     * @return out
+     * @see #formatTo(Appendable, Object...)
+     */
+    public <A extends Appendable> A formatTo(@NonNull A out, float value) throws UncheckedIOException {
+        return formatTo(out, new Object[] { value });
+    }
+
+    private <A extends Appendable> A appendTo(A out, int type, Object[] args, long longValue, double doubleValue) {
+        if (out instanceof StringBuilder) {
+            append((StringBuilder) out, type, args, longValue, doubleValue);
+            return out;
+        }
+        LocalBuilder local = LOCAL_BUILDER.get();
+        StringBuilder sb = local.acquire();
+        try {
+            append(sb, type, args, longValue, doubleValue);
+            out.append(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            local.release(sb);
+        }
+        return out;
+    }
+
+    private void append(StringBuilder sb, int type, Object[] args, long longValue, double doubleValue) {
+        char conversion = texts != null && conversions.length == 1 ? conversions[0] : 0;
+        switch (type) {
+        case INT:
+        case LONG:
+            if (conversion == 's' || conversion == 'x' || (conversion == 'd' && latinDigits)) {
+                sb.append(texts[0]);
+                if (conversion != 'x') {
+                    sb.append(longValue);
+                } else if (type == INT) {
+                    sb.append(Integer.toHexString((int) longValue));
+                } else {
+                    sb.append(Long.toHexString(longValue));
+                }
+                sb.append(texts[1]);
+            } else {
+                formatTo(sb, new Object[] { type == INT ? Integer.valueOf((int) longValue) : Long.valueOf(longValue) });
+            }
+            break;
+        case DOUBLE:
+            if (conversion == 's' || (conversion == 'f' && latinDigits)) {
+                sb.append(texts[0]);
+                if (conversion == 's') {
+                    sb.append(doubleValue);
+                } else {
+                    appendFixed(sb, doubleValue, precisions[0] < 0 ? DEFAULT_PRECISION : precisions[0]);
+                }
+                sb.append(texts[1]);
+            } else {
+                formatTo(sb, new Object[] { Double.valueOf(doubleValue) });
+            }
+            break;
+        default:
+            formatTo(sb, args);
+        }
+    }
+
+    /**
+     * @return the format string
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the Locale
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public String toString() {
+        return format;
+    }
+
+    private boolean append(StringBuilder sb, char conversion, int precision, Object arg) {
+        if (arg == null) {
+            // Formatter cuts "null" to the precision like a String
+            sb.append("null", 0, precision < 0 ? 4 : Math.min(precision, 4));
+            return true;
+        }
+        switch (conversion) {
+        case 's':
+            if (arg instanceof Formattable) {
+                return false;
+            }
+            sb.append(arg.toString());
+            return true;
+        case 'd':
+            if (!latinDigits) {
+                return false;
+            }
+            if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+                sb.append(((Number) arg).longValue());
+                return true;
+            }
+            if (arg instanceof BigInteger) {
+                sb.append(arg.toString());
+                return true;
+            }
+            return false;
+        case 'x':
+            if (arg instanceof Integer) {
+                sb.append(Integer.toHexString((Integer) arg));
+            } else if (arg instanceof Long) {
+                sb.append(Long.toHexString((Long) arg));
+            } else if (arg instanceof Short) {
+                sb.append(Integer.toHexString((Short) arg & 0xffff));
+            } else if (arg instanceof Byte) {
+                sb.append(Integer.toHexString((Byte) arg & 0xff));
+            } else if (arg instanceof BigInteger) {
+                sb.append(((BigInteger) arg).toString(16));
+            } else {
+                return false;
+            }
+            return true;
+        default:
+            if (!latinDigits || !(arg instanceof Double || arg instanceof Float)) {
+                return false;
+            }
+            appendFixed(sb, ((Number) arg).doubleValue(), precision < 0 ? DEFAULT_PRECISION : precision);
+            return true;
+        }
+    }
+
+    private void appendFixed(StringBuilder sb, double value, int precision) {
+        if (Double.isNaN(value)) {
+            sb.append("NaN");
+            return;
+        }
+        // Double.compare puts -0.0 below 0.0, so it keeps its sign like Formatter
+        if (Double.compare(value, 0.0) < 0) {
+            sb.append('-');
+        }
+        double magnitude = Math.abs(value);
+        if (Double.isInfinite(magnitude)) {
+            sb.append("Infinity");
+            return;
+        }
+        // Formatter rounds the shortest decimal representation half up, not the exact binary value
+        String digits = new BigDecimal(Double.toString(magnitude)).setScale(precision, RoundingMode.HALF_UP)
+                .toPlainString();
+        if (decimalSeparator == '.') {
+            sb.append(digits);
+        } else {
+            sb.append(digits.replace('.', decimalSeparator));
+        }
+    }
+
+    /**
+     * @return the number of conversions, or -1 if the template needs Formatter
+     */
+    private static int countConversions(String format) {
+        int count = 0;
+        int length = format.length();
+        for (int i = 0; i < length; i++) {
+            if (format.charAt(i) != '%') {
+                continue;
+            }
+            if (++i == length) {
+                return -1;
+            }
+            char c = format.charAt(i);
+            if (c == '%' || c == 'n') {
+                continue;
+            }
+            if (c == '.') {
+                int digits = 0;
+                while (i + 1 < length && isDigit(format.charAt(i + 1))) {
+                    i++;
+                    digits++;
+                }
+                if (digits == 0 || digits > MAX_PRECISION_DIGITS || ++i == length || format.charAt(i) != 'f') {
+                    return -1;
+                }
+            } else if (c != 's' && c != 'd' && c != 'x' && c != 'f') {
+                return -1;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private void compile(String format) {
+        StringBuilder text = new StringBuilder();
+        int count = 0;
+        int length = format.length();
+        for (int i = 0; i < length; i++) {
+            char c = format.charAt(i);
+            if (c != '%') {
+                text.append(c);
+                continue;
+            }
+            c = format.charAt(++i);
+            if (c == '%') {
+                text.append('%');
+                continue;
+            }
+            if (c == 'n') {
+                text.append(System.lineSeparator());
+                continue;
+            }
+            int precision = -1;
+            if (c == '.') {
+                precision = 0;
+                while (isDigit(c = format.charAt(++i))) {
+                    precision = precision * 10 + (c - '0');
+                }
+            }
+            texts[count] = text.toString();
+            text.setLength(0);
+            conversions[count] = c;
+            precisions[count] = precision;
+            count++;
+        }
+        texts[count] = text.toString();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static final class Key {
+
+        private final String format;
+        private final Locale locale;
+
+        Key(String format, Locale locale) {
+            this.format = format;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return format.equals(other.format) && locale.equals(other.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return format.hashCode() * 31 + locale.hashCode();
+        }
+    }
+
+    /**
+     * a StringBuilder reused by {@link FormatTemplate#format(Object...)} on one thread. An argument whose
+     * toString formats again gets a new StringBuilder instead of the one in use.
+     */
+    private static final class LocalBuilder {
+
+        private StringBuilder sb = new StringBuilder(256);
+        private boolean inUse;
+
+        StringBuilder acquire() {
+            if (inUse) {
+                return new StringBuilder();
+            }
+            inUse = true;
+            sb.setLength(0);
+            return sb;
+        }
+
+        void release(StringBuilder used) {
+            if (used != sb) {
+                return;
+            }
+            inUse = false;
+            if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+                sb = new StringBuilder(256);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.emalock3.common.extension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * resolves a host name to its addresses.
+ */
+@FunctionalInterface
+public interface HostResolver {
+
+    /**
+     * the resolver of the JVM, {@link InetAddress#getAllByName(String)}.
+     */
+    HostResolver SYSTEM = InetAddress::getAllByName;
+
+    /**
+     * @param host the host name
+     * @return the addresses, never empty
+     * @throws UnknownHostException if the host cannot be resolved
+     */
+    InetAddress[] resolve(String host) throws UnknownHostException;
+}
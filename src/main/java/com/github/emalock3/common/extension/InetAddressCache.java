@@ -0,0 +1,156 @@
+package com.github.emalock3.common.extension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * caches host name resolutions with its own time-to-live, independent of the JVM-wide DNS cache policy.
+ * <p>
+ * Successful resolutions are kept for the TTL and failures for the negative TTL. Host names are
+ * compared case-insensitively. IP literals are parsed without being cached. When the cache is full,
+ * expired entries are dropped first and then some of the others.
+ */
+public final class InetAddressCache {
+
+    private static final int DEFAULT_MAX_SIZE = 4096;
+    private static final long DEFAULT_NEGATIVE_TTL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final HostResolver resolver;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxSize;
+    private final BoundedCache<String, Entry> cache;
+
+    /**
+     * @param resolver resolves the host names that are not cached
+     * @param ttl how long a resolved host is cached
+     * @param negativeTtl how long a failure is cached; 0 disables caching failures
+     * @param unit the unit of ttl and negativeTtl
+     * @param maxSize the maximum number of cached host names
+     * @throws IllegalArgumentException if a number is negative or maxSize is not positive
+     */
+    public InetAddressCache(@NonNull HostResolver resolver, long ttl, long negativeTtl, @NonNull TimeUnit unit,
+            int maxSize) throws IllegalArgumentException {
+        if (ttl < 0 || negativeTtl < 0) {
+            throw new IllegalArgumentException(String.format("invalid TTL: ttl=%d, negativeTtl=%d", ttl, negativeTtl));
+        }
+        this.resolver = resolver;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.negativeTtlNanos = unit.toNanos(negativeTtl);
+        this.maxSize = maxSize;
+        this.cache = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * @param ttl how long a resolved host is cached
+     * @param unit the unit of ttl
+     * @return the InetAddressCache using the system resolver, caching failures for up to 10 seconds
+     */
+    public static InetAddressCache of(long ttl, @NonNull TimeUnit unit) {
+        long negativeTtlNanos = Math.min(unit.toNanos(ttl), DEFAULT_NEGATIVE_TTL_NANOS);
+        return new InetAddressCache(HostResolver.SYSTEM, unit.toNanos(ttl), negativeTtlNanos, TimeUnit.NANOSECONDS,
+                DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param host the host name or IP literal
+     * @return the first address of the host
+     * @throws IllegalArgumentException if the host cannot be resolved
+     */
+    public InetAddress get(@NonNull CharSequence host) throws IllegalArgumentException {
+        Optional<InetAddress> literal = InetAddresses.parseLiteral(host);
+        if (literal.isPresent()) {
+            return literal.get();
+        }
+        return entry(host.toString()).addresses()[0];
+    }
+
+    /**
+     * @param host the host name or IP literal
+     * @return all addresses of the host
+     * @throws IllegalArgumentException if the host cannot be resolved
+     */
+    public InetAddress[] getAll(@NonNull CharSequence host) throws IllegalArgumentException {
+        Optional<InetAddress> literal = InetAddresses.parseLiteral(host);
+        if (literal.isPresent()) {
+            return new InetAddress[] {literal.get()};
+        }
+        return entry(host.toString()).addresses().clone();
+    }
+
+    /**
+     * @param host the host name
+     */
+    public void invalidate(@NonNull CharSequence host) {
+        cache.remove(host.toString().toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * removes every cached host.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return the number of cached hosts, including expired ones not yet removed
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private Entry entry(String host) {
+        String key = host.toLowerCase(Locale.ENGLISH);
+        long now = System.nanoTime();
+        Entry entry = cache.get(key);
+        if (entry != null && entry.isValid(now)) {
+            return entry;
+        }
+        try {
+            InetAddress[] addresses = resolver.resolve(host);
+            if (addresses == null || addresses.length == 0) {
+                throw new UnknownHostException(host);
+            }
+            entry = new Entry(addresses.clone(), null, System.nanoTime() + ttlNanos);
+        } catch (UnknownHostException e) {
+            entry = new Entry(null, e, System.nanoTime() + negativeTtlNanos);
+            if (negativeTtlNanos == 0) {
+                return entry;
+            }
+        }
+        if (cache.size() >= maxSize) {
+            cache.removeIf(e -> !e.isValid(now));
+        }
+        cache.put(key, entry);
+        return entry;
+    }
+
+    private static final class Entry {
+
+        private final InetAddress[] addresses;
+        private final UnknownHostException error;
+        private final long expiresAt;
+
+        Entry(InetAddress[] addresses, UnknownHostException error, long expiresAt) {
+            this.addresses = addresses;
+            this.error = error;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(long now) {
+            return now - expiresAt < 0;
+        }
+
+        InetAddress[] addresses() {
+            if (error != null) {
+                throw new IllegalArgumentException(error);
+            }
+            return addresses;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.emalock3.common.extension;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Optional;
+
+/**
+ * parses IPv4 and IPv6 literals into InetAddress instances without going through the resolver.
+ * <p>
+ * Only the canonical forms are accepted: dotted-quad IPv4 without leading zeros, and IPv6 with
+ * optional "::" compression, an optional trailing dotted-quad and optional brackets. Anything else,
+ * including IPv6 scope ids, is left to {@link InetAddress#getByName(String)}.
+ */
+final class InetAddresses {
+
+    private static final int IPV4_LENGTH = 4;
+    private static final int IPV6_LENGTH = 16;
+
+    private InetAddresses() {
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the address, or empty if cs is not a literal this parser accepts
+     */
+    static Optional<InetAddress> parseLiteral(CharSequence cs) {
+        byte[] bytes = toBytes(cs);
+        if (bytes == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(InetAddress.getByAddress(bytes));
+        } catch (UnknownHostException e) {
+            // cannot happen with 4 or 16 bytes
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the address bytes, or null if cs is not a literal this parser accepts
+     */
+    static byte[] toBytes(CharSequence cs) {
+        int length = cs.length();
+        if (length == 0) {
+            return null;
+        }
+        if (cs.charAt(0) == '[') {
+            return length > 2 && cs.charAt(length - 1) == ']' ? parseIPv6(cs, 1, length - 1) : null;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cs.charAt(i) == ':') {
+                return parseIPv6(cs, 0, length);
+            }
+        }
+        byte[] bytes = new byte[IPV4_LENGTH];
+        return parseIPv4(cs, 0, length, bytes, 0) ? bytes : null;
+    }
+
+    private static boolean parseIPv4(CharSequence cs, int start, int end, byte[] dst, int offset) {
+        int octets = 0;
+        int i = start;
+        while (octets < IPV4_LENGTH) {
+            int value = 0;
+            int digits = 0;
+            for (; i < end; i++) {
+                char c = cs.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (digits == 1 && value == 0) {
+                    // leading zeros are octal to some parsers and decimal to others
+                    return false;
+                }
+                value = value * 10 + (c - '0');
+                if (++digits > 3 || value > 255) {
+                    return false;
+                }
+            }
+            if (digits == 0) {
+                return false;
+            }
+            dst[offset + octets++] = (byte) value;
+            if (octets < IPV4_LENGTH) {
+                if (i >= end || cs.charAt(i) != '.') {
+                    return false;
+                }
+                i++;
+            }
+        }
+        return i == end;
+    }
+
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static byte[] parseIPv6(CharSequence cs, int start, int end) {
+        byte[] bytes = new byte[IPV6_LENGTH];
+        int pos = 0;
+        int compressAt = -1;
+        int i = start;
+        if (end - start >= 2 && cs.charAt(i) == ':') {
+            if (cs.charAt(i + 1) != ':') {
+                return null;
+            }
+            compressAt = 0;
+            i += 2;
+            if (i == end) {
+                return bytes;
+            }
+        }
+        while (i < end) {
+            if (pos == IPV6_LENGTH) {
+                return null;
+            }
+            int groupStart = i;
+            int value = 0;
+            for (; i < end && i - groupStart < 5; i++) {
+                int digit = hexDigit(cs.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+            }
+            int digits = i - groupStart;
+            if (i < end && cs.charAt(i) == '.') {
+                // a trailing dotted-quad fills the last four bytes
+                if (pos > IPV6_LENGTH - IPV4_LENGTH || !parseIPv4(cs, groupStart, end, bytes, pos)) {
+                    return null;
+                }
+                pos += IPV4_LENGTH;
+                break;
+            }
+            if (digits == 0 || digits > 4) {
+                return null;
+            }
+            bytes[pos++] = (byte) (value >> 8);
+            bytes[pos++] = (byte) value;
+            if (i == end) {
+                break;
+            }
+            if (cs.charAt(i) != ':' || ++i == end) {
+                return null;
+            }
+            if (cs.charAt(i) == ':') {
+                if (compressAt >= 0) {
+                    return null;
+                }
+                compressAt = pos;
+                if (++i == end) {
+                    break;
+                }
+            }
+        }
+        if (compressAt < 0) {
+            return pos == IPV6_LENGTH ? bytes : null;
+        }
+        if (pos == IPV6_LENGTH) {
+            // "::" must stand for at least one group
+            return null;
+        }
+        int tail = pos - compressAt;
+        System.arraycopy(bytes, compressAt, bytes, IPV6_LENGTH - tail, tail);
+        for (int j = compressAt; j < IPV6_LENGTH - tail; j++) {
+            bytes[j] = 0;
+        }
+        return bytes;
+    }
+}
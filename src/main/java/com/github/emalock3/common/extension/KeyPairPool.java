@@ -0,0 +1,271 @@
+package com.github.emalock3.common.extension;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Provider;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * keeps a bounded queue of key pairs generated ahead of time by background workers.
+ * <p>
+ * Whenever the number of ready key pairs drops to the low watermark, the workers generate key pairs
+ * until the high watermark is reached, so taking a key pair usually costs a queue poll. When the
+ * queue is empty, {@link #take()} generates the key pair on the calling thread and counts a miss.
+ */
+public final class KeyPairPool implements AutoCloseable {
+
+    private static final Logger LOGGER
+            = LoggerFactory.getLogger(KeyPairPool.class);
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final String algorithm;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int workers;
+    private final BlockingQueue<KeyPair> ready;
+    private final ThreadLocal<KeyPairGenerator> generators;
+    private final ExecutorService executor;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+    private final AtomicLong taken = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param algorithm the key pair algorithm
+     * @param providerOpt
+     * @param initializer initializes each KeyPairGenerator, e.g. with the key size
+     * @param lowWatermark the number of ready key pairs that triggers a refill
+     * @param highWatermark the capacity of the queue
+     * @param workers the number of background threads
+     * @throws IllegalArgumentException if the algorithm is unavailable or the watermarks are invalid
+     */
+    public KeyPairPool(@NonNull CharSequence algorithm, @NonNull Optional<Provider> providerOpt,
+            @NonNull Consumer<KeyPairGenerator> initializer, int lowWatermark, int highWatermark, int workers)
+            throws IllegalArgumentException {
+        if (lowWatermark < 0 || highWatermark <= lowWatermark || workers < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid watermarks or workers: low=%d, high=%d, workers=%d", lowWatermark, highWatermark, workers));
+        }
+        this.algorithm = algorithm.toString();
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.workers = workers;
+        this.ready = new ArrayBlockingQueue<>(highWatermark);
+        this.generators = ThreadLocal.withInitial(() -> {
+            KeyPairGenerator generator = StringExtensions.toKeyPairGenerator(this.algorithm, providerOpt);
+            initializer.accept(generator);
+            return generator;
+        });
+        // resolves the generator once so that an unknown algorithm fails here, not in a worker
+        generators.get();
+        String prefix = "KeyPairPool-" + this.algorithm + "-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        refill();
+    }
+
+    /**
+     * @param algorithm the key pair algorithm
+     * @param keySize
+     * @param lowWatermark the number of ready key pairs that triggers a refill
+     * @param highWatermark the capacity of the queue
+     * @return the KeyPairPool with one background worker
+     * @throws IllegalArgumentException if the algorithm is unavailable or the watermarks are invalid
+     */
+    public static KeyPairPool of(CharSequence algorithm, int keySize, int lowWatermark, int highWatermark)
+            throws IllegalArgumentException {
+        return new KeyPairPool(algorithm, Optional.empty(), generator -> generator.initialize(keySize),
+                lowWatermark, highWatermark, 1);
+    }
+
+    /**
+     * @return the key pair algorithm
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return a pre-generated key pair, or one generated on the calling thread when none is ready
+     */
+    public KeyPair take() {
+        KeyPair keyPair = ready.poll();
+        if (keyPair == null) {
+            misses.incrementAndGet();
+            keyPair = generate();
+        }
+        taken.incrementAndGet();
+        afterTake();
+        return keyPair;
+    }
+
+    /**
+     * @param timeout
+     * @param unit
+     * @return a pre-generated key pair, or empty when none became ready within the timeout
+     * @throws InterruptedException
+     */
+    public Optional<KeyPair> poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        KeyPair keyPair = ready.poll();
+        if (keyPair == null) {
+            refill();
+            keyPair = ready.poll(timeout, unit);
+            if (keyPair == null) {
+                return Optional.empty();
+            }
+        }
+        taken.incrementAndGet();
+        afterTake();
+        return Optional.of(keyPair);
+    }
+
+    /**
+     * @return the number of ready key pairs
+     */
+    public int size() {
+        return ready.size();
+    }
+
+    /**
+     * @return the current metrics
+     */
+    public Metrics getMetrics() {
+        return new Metrics(ready.size(), generated.get(), generationNanos.get(), taken.get(), misses.get());
+    }
+
+    /**
+     * stops the background workers and drops the ready key pairs.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+        ready.clear();
+    }
+
+    private void afterTake() {
+        if (ready.size() <= lowWatermark) {
+            refill();
+        }
+    }
+
+    private void refill() {
+        if (closed) {
+            return;
+        }
+        for (int active = activeWorkers.get(); active < workers; active = activeWorkers.get()) {
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                try {
+                    executor.execute(this::fill);
+                } catch (RejectedExecutionException e) {
+                    activeWorkers.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fill() {
+        try {
+            while (!closed && ready.size() < highWatermark) {
+                if (!ready.offer(generate())) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("failed to generate a {} key pair in the background", algorithm, e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+
+    private KeyPair generate() {
+        long start = System.nanoTime();
+        KeyPair keyPair = generators.get().generateKeyPair();
+        generationNanos.addAndGet(System.nanoTime() - start);
+        generated.incrementAndGet();
+        return keyPair;
+    }
+
+    /**
+     * a snapshot of the counters of a KeyPairPool.
+     */
+    public static final class Metrics {
+
+        private final int ready;
+        private final long generated;
+        private final long generationNanos;
+        private final long taken;
+        private final long misses;
+
+        Metrics(int ready, long generated, long generationNanos, long taken, long misses) {
+            this.ready = ready;
+            this.generated = generated;
+            this.generationNanos = generationNanos;
+            this.taken = taken;
+            this.misses = misses;
+        }
+
+        /**
+         * @return the number of ready key pairs
+         */
+        public int getReady() {
+            return ready;
+        }
+
+        /**
+         * @return the number of key pairs generated, in the background or on a miss
+         */
+        public long getGenerated() {
+            return generated;
+        }
+
+        /**
+         * @return the mean time to generate one key pair in nanoseconds
+         */
+        public long getAverageGenerationNanos() {
+            return generated == 0 ? 0 : generationNanos / generated;
+        }
+
+        /**
+         * @return the number of key pairs handed out
+         */
+        public long getTaken() {
+            return taken;
+        }
+
+        /**
+         * @return the number of key pairs generated on the calling thread because none was ready
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Metrics[ready=%d, generated=%d, averageGenerationNanos=%d, taken=%d, misses=%d]",
+                    ready, generated, getAverageGenerationNanos(), taken, misses);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.emalock3.common.extension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+
+/**
+ * caches java.security.KeyStore instances loaded from files.
+ * <p>
+ * A KeyStore is keyed by its normalized path, type and provider and is loaded again only when the
+ * modification time or the size of the file changes, or when a different password is given.
+ * The file is read through a FileChannel in one pass. The cached KeyStore is shared by every caller
+ * and must be treated as read-only.
+ * <p>
+ * The password is not retained: only a SHA-256 digest of it with a random salt per entry is kept to
+ * recognize the same password in a later call.
+ */
+public final class KeyStoreCache {
+
+    private static final ConcurrentMap<CacheKey, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private KeyStoreCache() {
+    }
+
+    /**
+     * @param path the keystore file
+     * @param type the keystore type such as "PKCS12"
+     * @param password the password of the keystore, or null to skip the integrity check
+     * @param providerOpt
+     * @return the loaded KeyStore, cached while the file is unchanged
+     * @throws IllegalArgumentException if the type is unavailable or the keystore cannot be parsed
+     * @throws UncheckedIOException if the file cannot be read or the password is incorrect
+     */
+    public static KeyStore load(@NonNull Path path, @NonNull CharSequence type, char[] password,
+            @NonNull Optional<Provider> providerOpt) throws IllegalArgumentException, UncheckedIOException {
+        Path normalized = path.toAbsolutePath().normalize();
+        CacheKey key = new CacheKey(normalized, type.toString(), providerOpt);
+        BasicFileAttributes attributes = readAttributes(normalized);
+        Entry entry = CACHE.get(key);
+        if (entry != null && entry.matches(attributes, password)) {
+            return entry.keyStore;
+        }
+        return CACHE.compute(key, (k, current) -> {
+            if (current != null && current.matches(attributes, password)) {
+                return current;
+            }
+            return new Entry(attributes, password, read(normalized, k.type, password, providerOpt));
+        }).keyStore;
+    }
+
+    /**
+     * @param path the keystore file
+     */
+    public static void invalidate(@NonNull Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        CACHE.keySet().removeIf(key -> key.path.equals(normalized));
+    }
+
+    /**
+     * removes every cached KeyStore.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static KeyStore read(Path path, String type, char[] password, Optional<Provider> providerOpt) {
+        KeyStore keyStore = StringExtensions.toKeyStore(type, providerOpt);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format("%s is too large: %d bytes", path, size));
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+            keyStore.load(new ByteArrayInputStream(buffer.array(), 0, buffer.position()), password);
+            return keyStore;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static final class Entry {
+
+        private static final int SALT_LENGTH = 16;
+
+        private static final SecureRandom SALTS = new SecureRandom();
+
+        private final Object fileKey;
+        private final long lastModified;
+        private final long size;
+        private final byte[] salt;
+        /** the salted digest of the password, or null without a password. */
+        private final byte[] passwordDigest;
+        private final KeyStore keyStore;
+
+        Entry(BasicFileAttributes attributes, char[] password, KeyStore keyStore) {
+            this.fileKey = attributes.fileKey();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.size = attributes.size();
+            this.salt = new byte[SALT_LENGTH];
+            SALTS.nextBytes(salt);
+            this.passwordDigest = digest(salt, password);
+            this.keyStore = keyStore;
+        }
+
+        boolean matches(BasicFileAttributes attributes, char[] other) {
+            return Objects.equals(fileKey, attributes.fileKey())
+                    && lastModified == attributes.lastModifiedTime().toMillis()
+                    && size == attributes.size()
+                    && passwordEquals(other);
+        }
+
+        private boolean passwordEquals(char[] other) {
+            if (passwordDigest == null || other == null) {
+                return passwordDigest == null && other == null;
+            }
+            return MessageDigest.isEqual(passwordDigest, digest(salt, other));
+        }
+
+        private static byte[] digest(byte[] salt, char[] password) {
+            if (password == null) {
+                return null;
+            }
+            byte[] bytes = new byte[password.length * 2];
+            for (int i = 0; i < password.length; i++) {
+                bytes[i * 2] = (byte) (password[i] >> 8);
+                bytes[i * 2 + 1] = (byte) password[i];
+            }
+            MessageDigest digest = StringExtensions.toMessageDigest("SHA-256");
+            digest.update(salt);
+            digest.update(bytes);
+            Arrays.fill(bytes, (byte) 0);
+            return digest.digest();
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final Path path;
+        private final String type;
+        private final Provider provider;
+
+        CacheKey(Path path, String type, Optional<Provider> providerOpt) {
+            this.path = path;
+            this.type = type;
+            this.provider = providerOpt.orElse(null);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return path.equals(other.path)
+                    && type.equalsIgnoreCase(other.type)
+                    && provider == other.provider;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, type.toUpperCase(Locale.ENGLISH), System.identityHashCode(provider));
+        }
+    }
+}
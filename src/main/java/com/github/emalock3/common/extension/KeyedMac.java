@@ -0,0 +1,207 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.security.InvalidKeyException;
+import java.security.Provider;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import lombok.NonNull;
+
+/**
+ * provides initialized javax.crypto.Mac instances for a fixed algorithm and key.
+ * <p>
+ * The key is applied once to a prototype Mac and every thread works on its own clone of it,
+ * so computing a MAC costs only the hash work. When the provider does not support cloning,
+ * each thread initializes its own instance once.
+ * <p>
+ * Instances returned by {@link #of(CharSequence, byte[], Optional)} are cached, up to 256 keys, so that
+ * {@link StringExtensions#hmac(CharSequence, CharSequence, byte[])} does not initialize a Mac per call. A
+ * cached instance keeps a copy of its key, and a Mac per thread that used it, reachable until it is evicted
+ * or {@link #clear()} or {@link #remove(CharSequence, byte[], Optional)} is called. Call remove when a key
+ * is retired, and keep per-user or short-lived keys in a KeyedMac of your own with {@link #create}.
+ */
+public final class KeyedMac {
+
+    private static final int MAX_CACHED_KEYS = 256;
+
+    private static final BoundedCache<CacheKey, KeyedMac> CACHE = new BoundedCache<>(MAX_CACHED_KEYS);
+
+    private final String algorithm;
+    private final SecretKeySpec key;
+    private final Optional<Provider> providerOpt;
+    private final Mac prototype;
+    private final boolean cloneable;
+    private final ThreadLocal<Mac> local = ThreadLocal.withInitial(this::newMac);
+
+    private KeyedMac(String algorithm, byte[] key, Optional<Provider> providerOpt) {
+        this.algorithm = algorithm;
+        this.key = new SecretKeySpec(key, algorithm);
+        this.providerOpt = providerOpt;
+        this.prototype = init(StringExtensions.toMAC(algorithm, providerOpt));
+        this.cloneable = isCloneable(prototype);
+    }
+
+    /**
+     * @param algorithm the MAC algorithm
+     * @param key the raw key bytes
+     * @return the cached KeyedMac for the algorithm and key
+     * @throws IllegalArgumentException if the algorithm is unavailable or the key is invalid
+     */
+    public static KeyedMac of(CharSequence algorithm, byte[] key) throws IllegalArgumentException {
+        return of(algorithm, key, Optional.empty());
+    }
+
+    /**
+     * @param algorithm the MAC algorithm
+     * @param key the raw key bytes
+     * @param providerOpt
+     * @return the cached KeyedMac for the algorithm, key and provider
+     * @throws IllegalArgumentException if the algorithm is unavailable or the key is invalid
+     */
+    public static KeyedMac of(@NonNull CharSequence algorithm, @NonNull byte[] key, @NonNull Optional<Provider> providerOpt)
+            throws IllegalArgumentException {
+        return CACHE.computeIfAbsent(new CacheKey(algorithm.toString(), key, providerOpt),
+                k -> new KeyedMac(k.algorithm, k.key, providerOpt));
+    }
+
+    /**
+     * The returned instance is not cached, so nothing keeps the key once the caller drops it.
+     *
+     * @param algorithm the MAC algorithm
+     * @param key the raw key bytes
+     * @param providerOpt
+     * @return a new KeyedMac for the algorithm, key and provider
+     * @throws IllegalArgumentException if the algorithm is unavailable or the key is invalid
+     */
+    public static KeyedMac create(@NonNull CharSequence algorithm, @NonNull byte[] key,
+            @NonNull Optional<Provider> providerOpt) throws IllegalArgumentException {
+        return new KeyedMac(algorithm.toString(), key.clone(), providerOpt);
+    }
+
+    /**
+     * removes the cached KeyedMac of a retired key.
+     *
+     * @param algorithm the MAC algorithm
+     * @param key the raw key bytes
+     * @param providerOpt
+     */
+    public static void remove(@NonNull CharSequence algorithm, @NonNull byte[] key,
+            @NonNull Optional<Provider> providerOpt) {
+        CACHE.remove(new CacheKey(algorithm.toString(), key, providerOpt));
+    }
+
+    /**
+     * removes every cached KeyedMac, e.g. after a key rotation.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * @return the MAC algorithm
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * The returned Mac belongs to the calling thread and must not be shared.
+     *
+     * @return the initialized Mac of the calling thread, reset
+     */
+    public Mac get() {
+        Mac mac = local.get();
+        mac.reset();
+        return mac;
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the MAC of cs encoded with {@link StringExtensions#DEFAULT_CHARSET}
+     */
+    public byte[] doFinal(CharSequence cs) {
+        return doFinal(cs, StringExtensions.DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Streams the encoded CharSequence into the Mac without copying it into a byte array.
+     *
+     * @param cs the CharSequence
+     * @param charsetOpt
+     * @return the MAC of the encoded cs
+     */
+    public byte[] doFinal(@NonNull CharSequence cs, @NonNull Optional<Charset> charsetOpt) {
+        Mac mac = get();
+        CharsetEncoder encoder = CharsetCache.encoder(charsetOpt.orElse(StringExtensions.DEFAULT_CHARSET));
+        ChunkedEncoder.<RuntimeException>encode(cs, encoder, ChunkedEncoder.localChunk(), mac::update);
+        return mac.doFinal();
+    }
+
+    private Mac newMac() {
+        if (cloneable) {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return init(StringExtensions.toMAC(algorithm, providerOpt));
+    }
+
+    private Mac init(Mac mac) {
+        try {
+            mac.init(key);
+            return mac;
+        } catch (InvalidKeyException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static boolean isCloneable(Mac mac) {
+        try {
+            mac.clone();
+            return true;
+        } catch (CloneNotSupportedException e) {
+            return false;
+        }
+    }
+
+    private static final class CacheKey {
+
+        private final String algorithm;
+        private final byte[] key;
+        private final Provider provider;
+
+        CacheKey(String algorithm, byte[] key, Optional<Provider> providerOpt) {
+            this.algorithm = algorithm;
+            this.key = key.clone();
+            this.provider = providerOpt.orElse(null);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return algorithm.equals(other.algorithm)
+                    && provider == other.provider
+                    && Arrays.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(algorithm, System.identityHashCode(provider), Arrays.hashCode(key));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.emalock3.common.extension;
+
+import java.util.Locale;
+
+/**
+ * a CharSequence that formats its template and arguments only when its content is first needed.
+ * <p>
+ * It is meant to be passed to a logger that may discard the message: the formatting happens on the first
+ * call to {@link #toString()}, {@link #length()}, {@link #charAt(int)} or {@link #subSequence(int, int)}
+ * and its result is kept. The arguments are referenced, not copied, so they should not be modified
+ * before the content is read.
+ *
+ * @see StringExtensions#fmtLazy(CharSequence, Object...)
+ */
+public final class LazyFormat implements CharSequence {
+
+    private final String format;
+    private final Locale locale;
+    private final Object[] args;
+    private volatile String formatted;
+
+    LazyFormat(String format, Locale locale, Object[] args) {
+        this.format = format;
+        this.locale = locale;
+        this.args = args;
+    }
+
+    /**
+     * @return true if the content has been formatted
+     */
+    public boolean isFormatted() {
+        return formatted != null;
+    }
+
+    @Override
+    public int length() {
+        return toString().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return toString().charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().subSequence(start, end);
+    }
+
+    /**
+     * @return the formatted String
+     * @throws java.util.IllegalFormatException as String.format does
+     */
+    @Override
+    public String toString() {
+        String s = formatted;
+        if (s == null) {
+            // two threads may both format, but they produce equal Strings
+            s = FormatTemplate.of(format, locale).format(args);
+            formatted = s;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.emalock3.common.extension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * parses language tags such as "en", "en-US", "en_US" and "zh-Hant-TW", and Accept-Language headers.
+ * <p>
+ * A tag of a language and an optional region is converted without the BCP 47 parser of the JDK; other
+ * tags are passed to {@link Locale#forLanguageTag(String)} with '_' replaced by '-'. The resulting
+ * Locales are cached by the raw tag. A String tag is its own cache key; a tag within an Accept-Language
+ * header or another CharSequence is copied into a String once per lookup, since the cache is keyed by String.
+ */
+final class LocaleParser {
+
+    private static final int MAX_CACHED_TAGS = 1024;
+
+    /** the weight of an entry in thousandths, like the three decimals of a quality value. */
+    private static final int MAX_WEIGHT = 1000;
+
+    private static final BoundedCache<String, Locale> CACHE = new BoundedCache<>(MAX_CACHED_TAGS);
+
+    private LocaleParser() {
+    }
+
+    /**
+     * @param cs the language tag
+     * @return the Locale, or Locale.ROOT for "*"; an ill-formed tag keeps the subtags before the first
+     *         ill-formed one, as Locale.forLanguageTag does
+     */
+    static Locale parse(CharSequence cs) {
+        return parse(cs, 0, cs.length());
+    }
+
+    private static Locale parse(CharSequence cs, int start, int end) {
+        String tag = cs instanceof String ? ((String) cs).substring(start, end) : cs.subSequence(start, end).toString();
+        return CACHE.computeIfAbsent(tag, LocaleParser::create);
+    }
+
+    private static Locale create(String tag) {
+        if (tag.equals("*")) {
+            return Locale.ROOT;
+        }
+        int length = tag.length();
+        int languageEnd = 0;
+        while (languageEnd < length && isAlpha(tag.charAt(languageEnd))) {
+            languageEnd++;
+        }
+        boolean simpleLanguage = (languageEnd == 2 || languageEnd == 3) && !tag.regionMatches(true, 0, "und", 0, 3);
+        if (simpleLanguage && languageEnd == length) {
+            return new Locale(tag);
+        }
+        if (simpleLanguage && isSeparator(tag.charAt(languageEnd)) && isRegion(tag, languageEnd + 1, length)) {
+            return new Locale(tag.substring(0, languageEnd), tag.substring(languageEnd + 1));
+        }
+        return Locale.forLanguageTag(tag.replace('_', '-'));
+    }
+
+    /**
+     * Entries are sorted by their quality values, keeping the order of the header for equal values.
+     * Entries whose quality value is 0 or malformed are left out.
+     *
+     * @param cs the value of an Accept-Language header such as "fr-CH, fr;q=0.9, *;q=0.5"
+     * @return the weighted locales
+     */
+    static List<WeightedLocale> parseAcceptLanguage(CharSequence cs) {
+        List<WeightedLocale> locales = new ArrayList<>();
+        int length = cs.length();
+        int i = 0;
+        while (i < length) {
+            int entryEnd = i;
+            while (entryEnd < length && cs.charAt(entryEnd) != ',') {
+                entryEnd++;
+            }
+            int tagStart = skipSpaces(cs, i, entryEnd);
+            int tagEnd = tagStart;
+            while (tagEnd < entryEnd && cs.charAt(tagEnd) != ';' && !isSpace(cs.charAt(tagEnd))) {
+                tagEnd++;
+            }
+            if (tagEnd > tagStart) {
+                int weight = weight(cs, tagEnd, entryEnd);
+                if (weight > 0) {
+                    locales.add(new WeightedLocale(parse(cs, tagStart, tagEnd), weight / (double) MAX_WEIGHT));
+                }
+            }
+            i = entryEnd + 1;
+        }
+        // List#sort is stable, so equal weights keep the order of the header
+        locales.sort((a, b) -> Double.compare(b.getWeight(), a.getWeight()));
+        return Collections.unmodifiableList(locales);
+    }
+
+    /**
+     * @return the weight in thousandths, 1000 without a "q" parameter, or -1 if it is malformed
+     */
+    private static int weight(CharSequence cs, int start, int end) {
+        int i = skipSpaces(cs, start, end);
+        if (i == end) {
+            return MAX_WEIGHT;
+        }
+        if (cs.charAt(i) != ';') {
+            return -1;
+        }
+        i = skipSpaces(cs, i + 1, end);
+        if (i + 2 > end || (cs.charAt(i) != 'q' && cs.charAt(i) != 'Q') || cs.charAt(i + 1) != '=') {
+            return -1;
+        }
+        i += 2;
+        if (i == end || (cs.charAt(i) != '0' && cs.charAt(i) != '1')) {
+            return -1;
+        }
+        int weight = (cs.charAt(i++) - '0') * MAX_WEIGHT;
+        if (i < end && cs.charAt(i) == '.') {
+            i++;
+            for (int scale = MAX_WEIGHT / 10, digits = 0; i < end && isDigit(cs.charAt(i)); i++, scale /= 10) {
+                if (++digits > 3) {
+                    return -1;
+                }
+                weight += (cs.charAt(i) - '0') * scale;
+            }
+        }
+        return skipSpaces(cs, i, end) == end && weight <= MAX_WEIGHT ? weight : -1;
+    }
+
+    private static boolean isRegion(String tag, int start, int end) {
+        int length = end - start;
+        if (length == 2) {
+            return isAlpha(tag.charAt(start)) && isAlpha(tag.charAt(start + 1));
+        }
+        return length == 3 && isDigit(tag.charAt(start)) && isDigit(tag.charAt(start + 1))
+                && isDigit(tag.charAt(start + 2));
+    }
+
+    private static int skipSpaces(CharSequence cs, int start, int end) {
+        int i = start;
+        while (i < end && isSpace(cs.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '-' || c == '_';
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,396 @@
+package com.github.emalock3.common.extension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+
+/**
+ * a CharSequence that decodes a memory-mapped file on demand, so the content never has to be on the heap.
+ * <p>
+ * ISO-8859-1 and US-ASCII are read directly, one byte per char. UTF-8 is indexed once when the file is
+ * opened: every 1024 chars the byte offset is recorded, and a stretch of ASCII is then read directly, so
+ * random access stays cheap and sequential access, as a regular expression does, costs a few bytes per char.
+ * Each byte of a malformed UTF-8 sequence decodes to its own U+FFFD, so the bytes E3 81 41 give two U+FFFD
+ * and 'A', where the decoder of the JDK, which replaces a maximal malformed subpart as a whole, gives one.
+ * {@link #subSequence(int, int)} returns a {@link CharSlice}
+ * instead of a copy, and {@link #toString()} is the only method that copies the content.
+ * <p>
+ * A CharSequence cannot be longer than Integer.MAX_VALUE, so a larger file is opened in windows with
+ * {@link #open(Path, Charset, long, long)}, or read line by line with
+ * {@link #forEachLine(Path, Charset, Consumer)}. The file must not be modified while it is mapped.
+ */
+public final class MappedCharSequence implements CharSequence {
+
+    private static final int LATIN1 = 0;
+    private static final int ASCII = 1;
+    private static final int UTF8 = 2;
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private static final int CHUNK = 1024;
+
+    private static final int DEFAULT_WINDOW = 1 << 28;
+
+    private final ByteBuffer bytes;
+    private final int byteLength;
+    private final Charset charset;
+    private final int mode;
+    private final int length;
+    /** the first char index at or after each multiple of CHUNK, or null if every char is a single byte. */
+    private final int[] chunkChars;
+    /** the byte offset of each char in chunkChars. */
+    private final int[] chunkBytes;
+    /** the char index in the upper and the byte offset in the lower half of the last UTF-8 position read. */
+    private volatile long cursor;
+
+    MappedCharSequence(ByteBuffer bytes, Charset charset) throws IllegalArgumentException {
+        this.bytes = bytes;
+        this.byteLength = bytes.limit();
+        this.charset = charset;
+        this.mode = mode(charset);
+        if (mode != UTF8) {
+            this.length = byteLength;
+            this.chunkChars = null;
+            this.chunkBytes = null;
+            return;
+        }
+        // there are no more chars than bytes, plus one entry for the end
+        int[] chars = new int[byteLength / CHUNK + 2];
+        int[] offsets = new int[chars.length];
+        int entries = 0;
+        int c = 0;
+        int pos = 0;
+        while (pos < byteLength) {
+            if (c >= entries * CHUNK) {
+                chars[entries] = c;
+                offsets[entries++] = pos;
+            }
+            if (bytes.get(pos) >= 0) {
+                pos++;
+                c++;
+            } else {
+                int n = sequenceLength(pos);
+                c += n == 4 ? 2 : 1;
+                pos += n < 0 ? 1 : n;
+            }
+        }
+        this.length = c;
+        if (c == byteLength) {
+            this.chunkChars = null;
+            this.chunkBytes = null;
+        } else {
+            chars[entries] = c;
+            offsets[entries++] = pos;
+            this.chunkChars = Arrays.copyOf(chars, entries);
+            this.chunkBytes = Arrays.copyOf(offsets, entries);
+        }
+    }
+
+    /**
+     * @param path the file
+     * @param charset ISO-8859-1, US-ASCII or UTF-8
+     * @return the content of the file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the charset is not supported or the file is larger than
+     *         Integer.MAX_VALUE bytes
+     */
+    public static MappedCharSequence open(@NonNull Path path, @NonNull Charset charset)
+            throws IOException, IllegalArgumentException {
+        mode(charset);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, charset, 0, channel.size());
+        }
+    }
+
+    /**
+     * With UTF-8, position should be at the start of a char; a partial char decodes to U+FFFD.
+     *
+     * @param path the file
+     * @param charset ISO-8859-1, US-ASCII or UTF-8
+     * @param position the offset in bytes of the window
+     * @param size the size in bytes of the window, which is cut at the end of the file
+     * @return the content of the window, empty if position is at or past the end of the file
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the charset is not supported, position or size is negative, or size
+     *         is larger than Integer.MAX_VALUE
+     */
+    public static MappedCharSequence open(@NonNull Path path, @NonNull Charset charset, long position, long size)
+            throws IOException, IllegalArgumentException {
+        mode(charset);
+        if (position < 0 || size < 0) {
+            throw new IllegalArgumentException(String.format("position=%d, size=%d", position, size));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (position >= channel.size()) {
+                // mapping past the end would try to extend the file
+                return new MappedCharSequence(ByteBuffer.allocate(0), charset);
+            }
+            return map(channel, charset, position, Math.min(size, channel.size() - position));
+        }
+    }
+
+    /**
+     * Reads a file of any size line by line, mapping a window of up to 256MB at a time.
+     *
+     * @param path the file
+     * @param charset ISO-8859-1, US-ASCII or UTF-8
+     * @param consumer the callback receiving each line
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalArgumentException if the charset is not supported or a line is longer than
+     *         Integer.MAX_VALUE bytes
+     * @see #forEachLine(Consumer)
+     */
+    public static void forEachLine(@NonNull Path path, @NonNull Charset charset, @NonNull Consumer<CharSlice> consumer)
+            throws IOException, IllegalArgumentException {
+        forEachLine(path, charset, consumer, DEFAULT_WINDOW);
+    }
+
+    static void forEachLine(Path path, Charset charset, Consumer<CharSlice> consumer, int windowSize)
+            throws IOException, IllegalArgumentException {
+        mode(charset);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int window = windowSize;
+            while (position < size) {
+                long remaining = size - position;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(remaining, window));
+                int end = buffer.limit();
+                if (end < remaining) {
+                    end = lastLineEnd(buffer);
+                    if (end == 0) {
+                        if (window == Integer.MAX_VALUE) {
+                            throw new IllegalArgumentException(String.format(
+                                    "a line at %d is longer than %d bytes", position, Integer.MAX_VALUE));
+                        }
+                        window = (int) Math.min(Integer.MAX_VALUE, window * 2L);
+                        continue;
+                    }
+                    buffer.limit(end);
+                }
+                new MappedCharSequence(buffer, charset).forEachLine(consumer);
+                position += end;
+                window = windowSize;
+            }
+        }
+    }
+
+    /**
+     * @return the index after the last line terminator that is known to be complete, or 0 if there is none
+     */
+    private static int lastLineEnd(ByteBuffer buffer) {
+        // a '\r' in the last byte may be followed by a '\n' in the next window
+        for (int i = buffer.limit() - 1; i >= 0; i--) {
+            byte b = buffer.get(i);
+            if (b == '\n' || (b == '\r' && i < buffer.limit() - 1)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static MappedCharSequence map(FileChannel channel, Charset charset, long position, long size)
+            throws IOException, IllegalArgumentException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "%d bytes cannot be viewed as a CharSequence; open a window instead", size));
+        }
+        return new MappedCharSequence(channel.map(FileChannel.MapMode.READ_ONLY, position, size), charset);
+    }
+
+    private static int mode(Charset charset) throws IllegalArgumentException {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            return LATIN1;
+        }
+        if (charset.equals(StandardCharsets.US_ASCII)) {
+            return ASCII;
+        }
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            return UTF8;
+        }
+        throw new IllegalArgumentException(String.format("%s is not supported", charset));
+    }
+
+    /**
+     * Splits the content at "\n", "\r\n" and "\r" like BufferedReader#readLine, and passes each line
+     * without its terminator to consumer. The CharSlice is reused and is valid only during the callback.
+     *
+     * @param consumer the callback receiving each line
+     */
+    public void forEachLine(@NonNull Consumer<CharSlice> consumer) {
+        CharSlice slice = new CharSlice(this, 0, 0);
+        int c = 0;
+        int lineStart = 0;
+        int pos = 0;
+        // '\n' and '\r' never occur inside a UTF-8 sequence, so the bytes can be scanned directly
+        while (pos < byteLength) {
+            byte b = bytes.get(pos);
+            if (b == '\n' || b == '\r') {
+                consumer.accept(slice.reset(this, lineStart, c));
+                pos++;
+                c++;
+                if (b == '\r' && pos < byteLength && bytes.get(pos) == '\n') {
+                    pos++;
+                    c++;
+                }
+                lineStart = c;
+            } else if (b >= 0 || mode != UTF8) {
+                pos++;
+                c++;
+            } else {
+                int n = sequenceLength(pos);
+                c += n == 4 ? 2 : 1;
+                pos += n < 0 ? 1 : n;
+            }
+        }
+        if (lineStart < c) {
+            consumer.accept(slice.reset(this, lineStart, c));
+        }
+    }
+
+    /**
+     * @return the Charset the content is decoded with
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.format("index=%d, length=%d", index, length));
+        }
+        if (mode == LATIN1) {
+            return (char) (bytes.get(index) & 0xff);
+        }
+        // a byte per char means every byte is ASCII or a malformed UTF-8 byte
+        if (mode == ASCII || chunkChars == null) {
+            return asciiAt(index);
+        }
+        int k = index / CHUNK;
+        if (chunkChars[k] > index) {
+            k--;
+        }
+        int c = chunkChars[k];
+        int pos = chunkBytes[k];
+        if (chunkBytes[k + 1] - pos == chunkChars[k + 1] - c) {
+            return asciiAt(pos + index - c);
+        }
+        long last = cursor;
+        int lastChar = (int) (last >>> 32);
+        if (lastChar >= c && lastChar <= index) {
+            c = lastChar;
+            pos = (int) last;
+        }
+        while (true) {
+            int n = bytes.get(pos) >= 0 ? 1 : sequenceLength(pos);
+            int width = n == 4 ? 2 : 1;
+            if (c + width > index) {
+                cursor = ((long) c << 32) | pos;
+                return decode(pos, n, index - c);
+            }
+            c += width;
+            pos += n < 0 ? 1 : n;
+        }
+    }
+
+    private char asciiAt(int pos) {
+        byte b = bytes.get(pos);
+        return b < 0 ? REPLACEMENT : (char) b;
+    }
+
+    /**
+     * @return a CharSlice of this sequence
+     */
+    @Override
+    public CharSlice subSequence(int start, int end) {
+        return new CharSlice(this, start, end);
+    }
+
+    /**
+     * @return the whole content copied into a String
+     */
+    @Override
+    public String toString() {
+        if (mode != UTF8 || chunkChars == null) {
+            byte[] array = new byte[byteLength];
+            for (int i = 0; i < byteLength; i++) {
+                array[i] = bytes.get(i);
+            }
+            return new String(array, mode == LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.US_ASCII);
+        }
+        char[] chars = new char[length];
+        int c = 0;
+        for (int pos = 0; pos < byteLength;) {
+            int n = bytes.get(pos) >= 0 ? 1 : sequenceLength(pos);
+            chars[c++] = decode(pos, n, 0);
+            if (n == 4) {
+                chars[c++] = decode(pos, n, 1);
+            }
+            pos += n < 0 ? 1 : n;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return the length of the well-formed UTF-8 sequence at pos, or -1 if it is malformed
+     */
+    private int sequenceLength(int pos) {
+        int b0 = bytes.get(pos) & 0xff;
+        if (b0 < 0x80) {
+            return 1;
+        }
+        if (b0 < 0xc2 || b0 > 0xf4) {
+            return -1;
+        }
+        int n = b0 < 0xe0 ? 2 : b0 < 0xf0 ? 3 : 4;
+        if (pos + n > byteLength) {
+            return -1;
+        }
+        int b1 = bytes.get(pos + 1) & 0xff;
+        // reject overlong forms, surrogates and code points above U+10FFFF
+        if ((b1 & 0xc0) != 0x80 || (b0 == 0xe0 && b1 < 0xa0) || (b0 == 0xed && b1 > 0x9f)
+                || (b0 == 0xf0 && b1 < 0x90) || (b0 == 0xf4 && b1 > 0x8f)) {
+            return -1;
+        }
+        for (int i = 2; i < n; i++) {
+            if ((bytes.get(pos + i) & 0xc0) != 0x80) {
+                return -1;
+            }
+        }
+        return n;
+    }
+
+    private char decode(int pos, int n, int half) {
+        switch (n) {
+        case 1:
+            return (char) bytes.get(pos);
+        case 2:
+            return (char) (((bytes.get(pos) & 0x1f) << 6) | (bytes.get(pos + 1) & 0x3f));
+        case 3:
+            return (char) (((bytes.get(pos) & 0x0f) << 12) | ((bytes.get(pos + 1) & 0x3f) << 6)
+                    | (bytes.get(pos + 2) & 0x3f));
+        case 4:
+            int codePoint = ((bytes.get(pos) & 0x07) << 18) | ((bytes.get(pos + 1) & 0x3f) << 12)
+                    | ((bytes.get(pos + 2) & 0x3f) << 6) | (bytes.get(pos + 3) & 0x3f);
+            return half == 0 ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+        default:
+            return REPLACEMENT;
+        }
+    }
+}
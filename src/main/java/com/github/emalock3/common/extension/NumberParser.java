@@ -0,0 +1,128 @@
+package com.github.emalock3.common.extension;
+
+/**
+ * parses integers from any CharSequence without converting it to a String first.
+ * <p>
+ * The rules and the exceptions are those of {@link Long#parseLong(String, int)} and its relatives, so a
+ * CharSlice of a larger text can be converted in place. Only the message of an exception copies the characters.
+ */
+final class NumberParser {
+
+    /** whether the messages of the JDK name a radix other than 10, as newer JDKs do. */
+    private static final boolean RADIX_IN_MESSAGE = radixInMessage();
+
+    private NumberParser() {
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param radix
+     * @return the byte
+     * @throws NumberFormatException as Byte.parseByte does
+     * @see Byte#parseByte(String, int)
+     */
+    static byte parseByte(CharSequence cs, int radix) throws NumberFormatException {
+        return (byte) checkRange(cs, radix, parseInt(cs, radix), Byte.MIN_VALUE, Byte.MAX_VALUE);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param radix
+     * @return the short
+     * @throws NumberFormatException as Short.parseShort does
+     * @see Short#parseShort(String, int)
+     */
+    static short parseShort(CharSequence cs, int radix) throws NumberFormatException {
+        return (short) checkRange(cs, radix, parseInt(cs, radix), Short.MIN_VALUE, Short.MAX_VALUE);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param radix
+     * @return the int
+     * @throws NumberFormatException as Integer.parseInt does
+     * @see Integer#parseInt(String, int)
+     */
+    static int parseInt(CharSequence cs, int radix) throws NumberFormatException {
+        return (int) parse(cs, radix, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param radix
+     * @return the long
+     * @throws NumberFormatException as Long.parseLong does
+     * @see Long#parseLong(String, int)
+     */
+    static long parseLong(CharSequence cs, int radix) throws NumberFormatException {
+        return parse(cs, radix, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * accumulates negatively, like Long.parseLong, so that the minimum value does not overflow.
+     */
+    private static long parse(CharSequence cs, int radix, long min, long max) throws NumberFormatException {
+        if (radix < Character.MIN_RADIX) {
+            throw new NumberFormatException("radix " + radix + " less than Character.MIN_RADIX");
+        }
+        if (radix > Character.MAX_RADIX) {
+            throw new NumberFormatException("radix " + radix + " greater than Character.MAX_RADIX");
+        }
+        int length = cs.length();
+        if (length == 0) {
+            throw forInputString(cs, radix);
+        }
+        int i = 0;
+        boolean negative = false;
+        long limit = -max;
+        char first = cs.charAt(0);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = min;
+            } else if (first != '+') {
+                throw forInputString(cs, radix);
+            }
+            if (length == 1) {
+                throw forInputString(cs, radix);
+            }
+            i++;
+        }
+        long multmin = limit / radix;
+        long result = 0;
+        while (i < length) {
+            int digit = Character.digit(cs.charAt(i++), radix);
+            if (digit < 0 || result < multmin) {
+                throw forInputString(cs, radix);
+            }
+            result *= radix;
+            if (result < limit + digit) {
+                throw forInputString(cs, radix);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private static int checkRange(CharSequence cs, int radix, int value, int min, int max)
+            throws NumberFormatException {
+        if (value < min || value > max) {
+            throw new NumberFormatException("Value out of range. Value:\"" + cs + "\" Radix:" + radix);
+        }
+        return value;
+    }
+
+    private static NumberFormatException forInputString(CharSequence cs, int radix) {
+        return new NumberFormatException("For input string: \"" + cs + "\""
+                + (RADIX_IN_MESSAGE && radix != 10 ? " under radix " + radix : ""));
+    }
+
+    private static boolean radixInMessage() {
+        try {
+            Integer.parseInt("-", 16);
+            return false;
+        } catch (NumberFormatException e) {
+            return String.valueOf(e.getMessage()).endsWith(" under radix 16");
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.emalock3.common.extension;
+
+import java.net.URI;
+
+import lombok.NonNull;
+
+/**
+ * the components of a URI reference, recorded as offsets into the original CharSequence.
+ * <p>
+ * The reference is split like the regular expression of RFC 3986 appendix B, in one pass and without
+ * validating the characters of each component, so any CharSequence can be parsed. Unlike java.net.URI,
+ * a reference such as {@code mailto:a?b} is not treated as opaque, so it has a path and a query.
+ * A component is copied into a String only when it is asked for. The getters follow java.net.URI:
+ * a missing component is null and a missing port is -1. Use {@link #toURI()} when the reference has
+ * to be validated.
+ */
+public final class ParsedURI {
+
+    private final CharSequence source;
+    private final int schemeEnd;
+    private final int authorityStart;
+    private final int userInfoEnd;
+    private final int hostStart;
+    private final int hostEnd;
+    private final int portStart;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int queryEnd;
+    private final int length;
+
+    private ParsedURI(CharSequence source, int schemeEnd, int authorityStart, int userInfoEnd, int hostStart,
+            int hostEnd, int portStart, int pathStart, int pathEnd, int queryEnd) {
+        this.source = source;
+        this.schemeEnd = schemeEnd;
+        this.authorityStart = authorityStart;
+        this.userInfoEnd = userInfoEnd;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.portStart = portStart;
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryEnd = queryEnd;
+        this.length = source.length();
+    }
+
+    /**
+     * @param cs the URI reference; it must not be modified while the ParsedURI is used
+     * @return the ParsedURI
+     */
+    public static ParsedURI parse(@NonNull CharSequence cs) {
+        int length = cs.length();
+        int schemeEnd = -1;
+        for (int i = 0; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c == ':') {
+                schemeEnd = i > 0 ? i : -1;
+                break;
+            }
+            if (c == '/' || c == '?' || c == '#') {
+                break;
+            }
+        }
+        int i = schemeEnd + 1;
+        int authorityStart = -1;
+        int userInfoEnd = -1;
+        int hostStart = -1;
+        int hostEnd = -1;
+        int portStart = -1;
+        if (i + 1 < length && cs.charAt(i) == '/' && cs.charAt(i + 1) == '/') {
+            authorityStart = i + 2;
+            int authorityEnd = authorityStart;
+            while (authorityEnd < length && !isDelimiter(cs.charAt(authorityEnd))) {
+                if (cs.charAt(authorityEnd) == '@') {
+                    userInfoEnd = authorityEnd;
+                }
+                authorityEnd++;
+            }
+            hostStart = userInfoEnd < 0 ? authorityStart : userInfoEnd + 1;
+            hostEnd = authorityEnd;
+            int j = hostStart;
+            if (j < authorityEnd && cs.charAt(j) == '[') {
+                while (j < authorityEnd && cs.charAt(j) != ']') {
+                    j++;
+                }
+                j = Math.min(j + 1, authorityEnd);
+            }
+            for (; j < authorityEnd; j++) {
+                if (cs.charAt(j) == ':') {
+                    hostEnd = j;
+                    portStart = j + 1;
+                }
+            }
+            i = authorityEnd;
+        }
+        int pathStart = i;
+        while (i < length && cs.charAt(i) != '?' && cs.charAt(i) != '#') {
+            i++;
+        }
+        int pathEnd = i;
+        if (i < length && cs.charAt(i) == '?') {
+            while (i < length && cs.charAt(i) != '#') {
+                i++;
+            }
+        }
+        return new ParsedURI(cs, schemeEnd, authorityStart, userInfoEnd, hostStart, hostEnd, portStart, pathStart,
+                pathEnd, i);
+    }
+
+    private static boolean isDelimiter(char c) {
+        return c == '/' || c == '?' || c == '#';
+    }
+
+    /**
+     * @return the scheme, or null
+     */
+    public String getScheme() {
+        return schemeEnd < 0 ? null : substring(0, schemeEnd);
+    }
+
+    /**
+     * @return the raw authority, or null if it is missing or empty
+     */
+    public String getRawAuthority() {
+        return authorityStart < 0 || authorityStart == pathStart ? null : substring(authorityStart, pathStart);
+    }
+
+    /**
+     * @return the raw user information, or null
+     */
+    public String getRawUserInfo() {
+        return userInfoEnd < 0 ? null : substring(authorityStart, userInfoEnd);
+    }
+
+    /**
+     * @return the host including the brackets of an IPv6 literal, or null
+     */
+    public String getHost() {
+        return hostStart < 0 || hostStart == hostEnd ? null : substring(hostStart, hostEnd);
+    }
+
+    /**
+     * @return the port, or -1 if it is missing or not a number
+     */
+    public int getPort() {
+        if (portStart < 0 || portStart == pathStart || pathStart - portStart > 9) {
+            return -1;
+        }
+        int port = 0;
+        for (int i = portStart; i < pathStart; i++) {
+            char c = source.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            port = port * 10 + (c - '0');
+        }
+        return port;
+    }
+
+    /**
+     * @return the raw path, which is empty but not null when there is no path
+     */
+    public String getRawPath() {
+        return substring(pathStart, pathEnd);
+    }
+
+    /**
+     * @return the raw query without '?', or null
+     */
+    public String getRawQuery() {
+        return pathEnd == queryEnd ? null : substring(pathEnd + 1, queryEnd);
+    }
+
+    /**
+     * @return the raw fragment without '#', or null
+     */
+    public String getRawFragment() {
+        return queryEnd == length ? null : substring(queryEnd + 1, length);
+    }
+
+    /**
+     * @return true if the reference has a scheme
+     */
+    public boolean isAbsolute() {
+        return schemeEnd >= 0;
+    }
+
+    /**
+     * @return the validated java.net.URI
+     * @throws IllegalArgumentException if the reference violates RFC 2396
+     * @see StringExtensions#toURI(CharSequence)
+     */
+    public URI toURI() throws IllegalArgumentException {
+        return StringExtensions.toURI(source);
+    }
+
+    @Override
+    public String toString() {
+        return source.toString();
+    }
+
+    private String substring(int start, int end) {
+        return source.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.file.Path;
+
+import lombok.NonNull;
+
+/**
+ * caches java.nio.file.Path instances converted from strings that appear again and again.
+ * <p>
+ * A Path is keyed by the content of the CharSequence it was converted from, and a resolved Path by its
+ * base and the content of the child, so the base of {@link #resolve(CharSequence, CharSequence)} is
+ * converted only once. Path is immutable, so a cached instance is shared by every caller. When the cache
+ * is full, some entries are evicted.
+ */
+public final class PathCache {
+
+    private final BoundedCache<Object, Path> cache;
+
+    /**
+     * @param maxSize the maximum number of cached paths, including resolved ones
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    public PathCache(int maxSize) throws IllegalArgumentException {
+        this.cache = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * @param cs the path string
+     * @return the cached or newly converted Path
+     * @throws java.nio.file.InvalidPathException if cs cannot be converted to a Path
+     * @see StringExtensions#toPath(CharSequence)
+     */
+    public Path get(@NonNull CharSequence cs) {
+        String path = cs.toString();
+        return cache.computeIfAbsent(path, key -> StringExtensions.toPath(path));
+    }
+
+    /**
+     * @param base the base path string
+     * @param child the path string to resolve against base
+     * @return the cached or newly resolved Path
+     * @throws java.nio.file.InvalidPathException if a string cannot be converted to a Path
+     * @see Path#resolve(String)
+     */
+    public Path resolve(@NonNull CharSequence base, @NonNull CharSequence child) {
+        return resolve(get(base), child);
+    }
+
+    /**
+     * @param base the base path
+     * @param child the path string to resolve against base
+     * @return the cached or newly resolved Path
+     * @throws java.nio.file.InvalidPathException if child cannot be converted to a Path
+     * @see Path#resolve(String)
+     */
+    public Path resolve(@NonNull Path base, @NonNull CharSequence child) {
+        String other = child.toString();
+        return cache.computeIfAbsent(new ResolveKey(base, other), key -> base.resolve(other));
+    }
+
+    /**
+     * removes every cached path.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return the number of cached paths, including resolved ones
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    private static final class ResolveKey {
+
+        private final Path base;
+        private final String child;
+
+        ResolveKey(Path base, String child) {
+            this.base = base;
+            this.child = child;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ResolveKey)) {
+                return false;
+            }
+            ResolveKey other = (ResolveKey) obj;
+            return base.equals(other.base) && child.equals(other.child);
+        }
+
+        @Override
+        public int hashCode() {
+            return base.hashCode() * 31 + child.hashCode();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.emalock3.common.extension;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Optional;
+
+/**
+ * a parameter of an application/x-www-form-urlencoded query string.
+ * <p>
+ * The key and the value are decoded only when they are asked for. While a query string is parsed,
+ * one instance is reused for every parameter, so an instance must not be kept after the callback
+ * returns; copy the values instead.
+ *
+ * @see StringExtensions#forEachQueryParameter(CharSequence, java.util.function.Consumer, Optional)
+ */
+public final class QueryParameter {
+
+    private final Optional<Charset> charsetOpt;
+    private CharSequence source;
+    private int start;
+    private int separator;
+    private int end;
+    private String key;
+    private String value;
+
+    QueryParameter(Optional<Charset> charsetOpt) {
+        this.charsetOpt = charsetOpt;
+    }
+
+    /**
+     * @param source the query string
+     * @param start the index of the first character of the parameter
+     * @param separator the index of '=', or end if there is none
+     * @param end the index after the last character of the parameter
+     * @return this
+     */
+    QueryParameter reset(CharSequence source, int start, int separator, int end) {
+        this.source = source;
+        this.start = start;
+        this.separator = separator;
+        this.end = end;
+        this.key = null;
+        this.value = null;
+        return this;
+    }
+
+    /**
+     * @return the decoded key
+     * @throws IllegalArgumentException if the key contains an illegal escape sequence
+     */
+    public String getKey() throws IllegalArgumentException {
+        if (key == null) {
+            key = StringExtensions.decodeURL(source, start, separator, charsetOpt);
+        }
+        return key;
+    }
+
+    /**
+     * @return the decoded value, or "" if the parameter has no '='
+     * @throws IllegalArgumentException if the value contains an illegal escape sequence
+     */
+    public String getValue() throws IllegalArgumentException {
+        if (value == null) {
+            value = hasValue() ? StringExtensions.decodeURL(source, separator + 1, end, charsetOpt) : "";
+        }
+        return value;
+    }
+
+    /**
+     * @return the key as it appears in the query string, without copying it
+     */
+    public CharSequence getRawKey() {
+        return CharBuffer.wrap(source, start, separator);
+    }
+
+    /**
+     * @return the value as it appears in the query string, without copying it
+     */
+    public CharSequence getRawValue() {
+        return hasValue() ? CharBuffer.wrap(source, separator + 1, end) : "";
+    }
+
+    /**
+     * @return true if the parameter has '='
+     */
+    public boolean hasValue() {
+        return separator < end;
+    }
+
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.emalock3.common.extension;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+
+/**
+ * supplies random bytes from a set of java.security.SecureRandom stripes.
+ * <p>
+ * Each thread is mapped to one of the stripes, so threads rarely wait for each other's lock.
+ * The stripes are seeded from a non-blocking source instead of {@link SecureRandom#generateSeed(int)},
+ * and each stripe is reseeded after it has produced a number of bytes or after a period of time.
+ */
+public final class SecureRandomSupply {
+
+    private static final int SEED_LENGTH = 32;
+    private static final long DEFAULT_RESEED_BYTES = 1L << 20;
+    private static final long DEFAULT_RESEED_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final String algorithm;
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long reseedBytes;
+    private final long reseedPeriodNanos;
+
+    /**
+     * @param algorithm the SecureRandom algorithm
+     * @param providerOpt
+     * @param stripes the number of stripes, rounded up to a power of two
+     * @param reseedBytes the number of bytes a stripe produces before it is reseeded
+     * @param reseedPeriod the time after which a stripe is reseeded
+     * @param unit the unit of reseedPeriod
+     * @throws IllegalArgumentException if the algorithm is unavailable or a number is not positive
+     */
+    public SecureRandomSupply(@NonNull CharSequence algorithm, @NonNull Optional<Provider> providerOpt, int stripes,
+            long reseedBytes, long reseedPeriod, @NonNull TimeUnit unit) throws IllegalArgumentException {
+        if (stripes < 1 || stripes > 1 << 16 || reseedBytes < 1 || reseedPeriod < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "invalid stripes or reseed interval: stripes=%d, reseedBytes=%d, reseedPeriod=%d",
+                    stripes, reseedBytes, reseedPeriod));
+        }
+        this.algorithm = algorithm.toString();
+        int size = Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[Math.max(size, 1)];
+        this.mask = this.stripes.length - 1;
+        this.reseedBytes = reseedBytes;
+        this.reseedPeriodNanos = unit.toNanos(reseedPeriod);
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(StringExtensions.toSecureRandom(algorithm, providerOpt));
+        }
+    }
+
+    /**
+     * @param algorithm the SecureRandom algorithm
+     * @return the SecureRandomSupply with two stripes per processor
+     * @throws IllegalArgumentException if the algorithm is unavailable
+     */
+    public static SecureRandomSupply of(CharSequence algorithm) throws IllegalArgumentException {
+        return new SecureRandomSupply(algorithm, Optional.empty(), Runtime.getRuntime().availableProcessors() * 2,
+                DEFAULT_RESEED_BYTES, DEFAULT_RESEED_PERIOD_NANOS, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the SecureRandom algorithm
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @param bytes the array to fill with random bytes
+     */
+    public void nextBytes(@NonNull byte[] bytes) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.beforeUse(bytes.length);
+            stripe.random.nextBytes(bytes);
+        }
+    }
+
+    /**
+     * @param bytes the array to fill with random bytes
+     * @param offset
+     * @param length
+     * @throws IndexOutOfBoundsException if the range is outside of bytes
+     */
+    public void nextBytes(@NonNull byte[] bytes, int offset, int length) throws IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset > bytes.length - length) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "offset=%d, length=%d, array length=%d", offset, length, bytes.length));
+        }
+        if (offset == 0 && length == bytes.length) {
+            nextBytes(bytes);
+            return;
+        }
+        // SecureRandom fills whole arrays only; the copy is cleared so the bytes are not left behind
+        byte[] random = new byte[length];
+        nextBytes(random);
+        System.arraycopy(random, 0, bytes, offset, length);
+        Arrays.fill(random, (byte) 0);
+    }
+
+    /**
+     * @param length the number of bytes
+     * @return a new array of random bytes
+     */
+    public byte[] nonce(int length) {
+        byte[] bytes = new byte[length];
+        nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param length the number of random bytes
+     * @return the random bytes as unpadded URL-safe Base64
+     */
+    public String token(int length) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(nonce(length));
+    }
+
+    /**
+     * @return a random long
+     */
+    public long nextLong() {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            stripe.beforeUse(Long.BYTES);
+            return stripe.random.nextLong();
+        }
+    }
+
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & mask];
+    }
+
+    private final class Stripe {
+
+        private final SecureRandom random;
+        private long produced;
+        private long seededAt;
+
+        Stripe(SecureRandom random) {
+            this.random = random;
+            reseed();
+        }
+
+        void beforeUse(int length) {
+            produced += length;
+            if (produced > reseedBytes || System.nanoTime() - seededAt > reseedPeriodNanos) {
+                reseed();
+            }
+        }
+
+        private void reseed() {
+            random.setSeed(SeedSource.seed());
+            produced = 0;
+            seededAt = System.nanoTime();
+        }
+    }
+
+    private static final class SeedSource {
+
+        private static final SecureRandom SOURCE = newSource();
+
+        static byte[] seed() {
+            byte[] seed = new byte[SEED_LENGTH];
+            SOURCE.nextBytes(seed);
+            return seed;
+        }
+
+        private static SecureRandom newSource() {
+            try {
+                return SecureRandom.getInstance("NativePRNGNonBlocking");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
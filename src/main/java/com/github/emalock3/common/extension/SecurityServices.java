@@ -0,0 +1,96 @@
+package com.github.emalock3.common.extension;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+
+/**
+ * caches which installed java.security.Provider serves a JCA service.
+ * <p>
+ * The first lookup of a type and algorithm scans the installed providers in preference order;
+ * later lookups are answered from the cache, so the JCA factories can be asked for the resolved
+ * provider directly and skip both the scan and the synchronized provider list. An algorithm that no
+ * provider supports is remembered as well, up to a limit, so it is not scanned for again.
+ * Call {@link #clear()} after installing or removing providers at runtime.
+ */
+public final class SecurityServices {
+
+    private static final ConcurrentMap<String, Provider> PROVIDERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Provider.Service> SERVICES = new ConcurrentHashMap<>();
+
+    /** the number of unsupported algorithms remembered; the names come from callers, so they are bounded. */
+    private static final int MAX_MISSING = 256;
+
+    private static final BoundedCache<String, Boolean> MISSING = new BoundedCache<>(MAX_MISSING);
+
+    private SecurityServices() {
+    }
+
+    /**
+     * @param name the provider name
+     * @return the installed provider of the name
+     * @see Security#getProvider(String)
+     */
+    public static Optional<Provider> getProvider(@NonNull String name) {
+        Provider provider = PROVIDERS.get(name);
+        if (provider == null) {
+            provider = Security.getProvider(name);
+            if (provider != null) {
+                PROVIDERS.putIfAbsent(name, provider);
+            }
+        }
+        return Optional.ofNullable(provider);
+    }
+
+    /**
+     * @param type the service type such as "Signature"
+     * @param algorithm the algorithm name or alias
+     * @return the most preferred installed service, empty when no provider supports it
+     */
+    public static Optional<Provider.Service> getService(@NonNull String type, @NonNull String algorithm) {
+        String key = type + '.' + algorithm.toUpperCase(Locale.ENGLISH);
+        Provider.Service service = SERVICES.get(key);
+        if (service == null && MISSING.get(key) == null) {
+            service = findService(type, algorithm);
+            if (service != null) {
+                SERVICES.putIfAbsent(key, service);
+            } else {
+                MISSING.put(key, Boolean.TRUE);
+            }
+        }
+        return Optional.ofNullable(service);
+    }
+
+    /**
+     * @param type the service type such as "Signature"
+     * @param algorithm the algorithm name or alias
+     * @return the provider of the most preferred installed service
+     */
+    public static Optional<Provider> getServiceProvider(String type, String algorithm) {
+        return getService(type, algorithm).map(Provider.Service::getProvider);
+    }
+
+    /**
+     * forgets every resolved provider and service.
+     */
+    public static void clear() {
+        PROVIDERS.clear();
+        SERVICES.clear();
+        MISSING.clear();
+    }
+
+    private static Provider.Service findService(String type, String algorithm) {
+        for (Provider provider : Security.getProviders()) {
+            Provider.Service service = provider.getService(type, algorithm);
+            if (service != null) {
+                return service;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,321 @@
+package com.github.emalock3.common.extension;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import lombok.NonNull;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * resolves and optionally exercises security services ahead of the first request.
+ * <p>
+ * A service is named as {@code Type.algorithm}, e.g. {@code Cipher.AES/GCM/NoPadding} or
+ * {@code Mac.HmacSHA256}; the supported types are Cipher, Mac, Signature and MessageDigest.
+ * A name without a type is tried as MessageDigest, Mac, Signature and Cipher in that order.
+ * Warming up loads the providers, initializes the classes and, when iterations are given,
+ * lets the JIT compiler see the crypto code before real traffic does. A service is exercised with a
+ * generated key; when no suitable key can be generated for it, such as for password-based ciphers, the
+ * resolved service is reported as ready without being exercised.
+ */
+public final class SecurityWarmup {
+
+    private static final Logger LOGGER
+            = LoggerFactory.getLogger(SecurityWarmup.class);
+
+    private static final String[] TYPES = {"MessageDigest", "Mac", "Signature", "Cipher"};
+
+    private static final byte[] INPUT = new byte[64];
+
+    private SecurityWarmup() {
+    }
+
+    /**
+     * @param services the service names
+     * @param iterations the number of operations performed with each service; 0 only resolves it
+     * @return the result of each service in the order of services
+     */
+    public static List<Result> warmUp(@NonNull Collection<? extends CharSequence> services, int iterations) {
+        List<Result> results = new ArrayList<>(services.size());
+        for (CharSequence service : services) {
+            Result result = warmUp(service.toString(), iterations);
+            LOGGER.debug("{}", result);
+            results.add(result);
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * @param services the service names
+     * @param iterations the number of operations performed with each service; 0 only resolves it
+     * @return the results, completed by a background daemon thread
+     */
+    public static CompletableFuture<List<Result>> warmUpAsync(@NonNull Collection<? extends CharSequence> services,
+            int iterations) {
+        List<CharSequence> copy = new ArrayList<>(services);
+        Executor background = runnable -> {
+            Thread thread = new Thread(runnable, "SecurityWarmup");
+            thread.setDaemon(true);
+            thread.start();
+        };
+        return CompletableFuture.supplyAsync(() -> warmUp(copy, iterations), background);
+    }
+
+    private static Result warmUp(String service, int iterations) {
+        int dot = service.indexOf('.');
+        String type = dot < 0 ? null : service.substring(0, dot);
+        if (type != null && indexOfType(type) >= 0) {
+            return warmUp(service, type, service.substring(dot + 1), iterations);
+        }
+        Result result = null;
+        for (String candidate : TYPES) {
+            result = warmUp(service, candidate, service, iterations);
+            if (result.isSuccess()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    private static Result warmUp(String service, String type, String algorithm, int iterations) {
+        long start = System.nanoTime();
+        long resolved = start;
+        boolean exercised = false;
+        try {
+            switch (indexOfType(type)) {
+                case 0:
+                    MessageDigest digest = StringExtensions.toMessageDigest(algorithm);
+                    resolved = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        digest.digest(INPUT);
+                    }
+                    exercised = iterations > 0;
+                    break;
+                case 1:
+                    Mac mac = StringExtensions.toMAC(algorithm);
+                    resolved = System.nanoTime();
+                    exercised = iterations > 0 && exercise(mac, iterations);
+                    break;
+                case 2:
+                    Signature signature = StringExtensions.toSignature(algorithm);
+                    resolved = System.nanoTime();
+                    exercised = iterations > 0 && exercise(signature, iterations);
+                    break;
+                default:
+                    Cipher cipher = StringExtensions.toCipher(algorithm);
+                    resolved = System.nanoTime();
+                    exercised = iterations > 0 && exercise(cipher, iterations);
+                    break;
+            }
+            long end = System.nanoTime();
+            return new Result(service, type, algorithm, resolved - start, end - start, exercised, Optional.empty());
+        } catch (GeneralSecurityException | RuntimeException e) {
+            long end = System.nanoTime();
+            return new Result(service, type, algorithm, resolved - start, end - start, exercised, Optional.of(e));
+        }
+    }
+
+    /**
+     * @return false if the Mac does not accept a plain secret key
+     */
+    private static boolean exercise(Mac mac, int iterations) throws GeneralSecurityException {
+        try {
+            mac.init(new SecretKeySpec(new byte[32], mac.getAlgorithm()));
+        } catch (InvalidKeyException e) {
+            LOGGER.debug("{} is not exercised without a suitable key", mac.getAlgorithm(), e);
+            return false;
+        }
+        for (int i = 0; i < iterations; i++) {
+            mac.doFinal(INPUT);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if no key pair generator is found for the Signature
+     */
+    private static boolean exercise(Signature signature, int iterations) throws GeneralSecurityException {
+        String keyAlgorithm = keyAlgorithmOf(signature.getAlgorithm());
+        if (!SecurityServices.getService("KeyPairGenerator", keyAlgorithm).isPresent()) {
+            LOGGER.debug("{} is not exercised without a {} key pair generator", signature.getAlgorithm(), keyAlgorithm);
+            return false;
+        }
+        KeyPair keyPair = StringExtensions.toKeyPairGenerator(keyAlgorithm).generateKeyPair();
+        for (int i = 0; i < iterations; i++) {
+            signature.initSign(keyPair.getPrivate());
+            signature.update(INPUT);
+            byte[] signed = signature.sign();
+            signature.initVerify(keyPair.getPublic());
+            signature.update(INPUT);
+            signature.verify(signed);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if no key generator is found for the Cipher or the Cipher rejects the generated key
+     */
+    private static boolean exercise(Cipher cipher, int iterations) throws GeneralSecurityException {
+        Optional<Key> keyOpt = keyOf(cipher.getAlgorithm());
+        if (!keyOpt.isPresent()) {
+            LOGGER.debug("{} is not exercised without a key generator", cipher.getAlgorithm());
+            return false;
+        }
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, keyOpt.get());
+        } catch (InvalidKeyException e) {
+            LOGGER.debug("{} is not exercised without a suitable key", cipher.getAlgorithm(), e);
+            return false;
+        }
+        for (int i = 0; i < iterations; i++) {
+            if (i > 0) {
+                cipher.init(Cipher.ENCRYPT_MODE, keyOpt.get());
+            }
+            cipher.doFinal(INPUT);
+        }
+        return true;
+    }
+
+    /**
+     * tries the algorithm of the transformation and then its part before '-', so that
+     * "ChaCha20-Poly1305" is given a "ChaCha20" key.
+     */
+    private static Optional<Key> keyOf(String transformation) {
+        String cipherAlgorithm = transformation.split("/")[0];
+        if (cipherAlgorithm.equalsIgnoreCase("RSA")) {
+            return Optional.of(StringExtensions.toKeyPairGenerator(cipherAlgorithm).generateKeyPair().getPublic());
+        }
+        int hyphen = cipherAlgorithm.indexOf('-');
+        String[] candidates = hyphen < 0 ? new String[] {cipherAlgorithm}
+                : new String[] {cipherAlgorithm, cipherAlgorithm.substring(0, hyphen)};
+        for (String keyAlgorithm : candidates) {
+            if (SecurityServices.getService("KeyGenerator", keyAlgorithm).isPresent()) {
+                return Optional.of(StringExtensions.toKeyGenerator(keyAlgorithm).generateKey());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String keyAlgorithmOf(String signatureAlgorithm) {
+        String upper = signatureAlgorithm.toUpperCase(Locale.ENGLISH);
+        int with = upper.lastIndexOf("WITH");
+        String keyAlgorithm = with < 0 ? signatureAlgorithm : signatureAlgorithm.substring(with + 4);
+        return keyAlgorithm.equalsIgnoreCase("ECDSA") ? "EC" : keyAlgorithm;
+    }
+
+    private static int indexOfType(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equalsIgnoreCase(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the outcome of warming up one service.
+     */
+    public static final class Result {
+
+        private final String service;
+        private final String type;
+        private final String algorithm;
+        private final long resolveNanos;
+        private final long totalNanos;
+        private final boolean exercised;
+        private final Optional<Throwable> errorOpt;
+
+        Result(String service, String type, String algorithm, long resolveNanos, long totalNanos, boolean exercised,
+                Optional<Throwable> errorOpt) {
+            this.service = service;
+            this.type = type;
+            this.algorithm = algorithm;
+            this.resolveNanos = resolveNanos;
+            this.totalNanos = totalNanos;
+            this.exercised = exercised;
+            this.errorOpt = errorOpt;
+        }
+
+        /**
+         * @return the service name as given
+         */
+        public String getService() {
+            return service;
+        }
+
+        /**
+         * @return the service type such as "Cipher"
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the algorithm or transformation
+         */
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * @return the time spent to obtain the instance in nanoseconds
+         */
+        public long getResolveNanos() {
+            return resolveNanos;
+        }
+
+        /**
+         * @return the time spent to obtain and exercise the instance in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return true when the instance was exercised; false when only resolved, for no iterations or for
+         *         a service no suitable key could be generated for
+         */
+        public boolean isExercised() {
+            return exercised;
+        }
+
+        /**
+         * @return the failure, empty when the service is ready
+         */
+        public Optional<Throwable> getError() {
+            return errorOpt;
+        }
+
+        /**
+         * @return true when the service is ready
+         */
+        public boolean isSuccess() {
+            return !errorOpt.isPresent();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "Result[service=%s, type=%s, algorithm=%s, resolveNanos=%d, totalNanos=%d, exercised=%s, error=%s]",
+                    service, type, algorithm, resolveNanos, totalNanos, exercised,
+                    errorOpt.map(Throwable::toString).orElse("none"));
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.github.emalock3.common.extension;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -16,9 +18,14 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.file.FileSystems;
 import java.nio.file.Path;
 import java.security.AlgorithmParameterGenerator;
 import java.security.AlgorithmParameters;
@@ -31,7 +38,6 @@ import java.security.NoSuchAlgorithmException;
 import java.security.Policy;
 import java.security.Provider;
 import java.security.SecureRandom;
-import java.security.Security;
 import java.security.Signature;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
@@ -40,18 +46,28 @@ import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 
+import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.KeyAgreement;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKeyFactory;
+import javax.crypto.ShortBufferException;
 
 import lombok.NonNull;
 
@@ -74,6 +90,11 @@ public final class StringExtensions {
     public static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
     public static final Optional<Charset> DEFAULT_CHARSET_OPT = Optional.of(DEFAULT_CHARSET);
 
+    /** the length above which toInputStream encodes lazily instead of creating a byte array. */
+    static final int STREAMING_THRESHOLD = 64 * 1024;
+
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
+
     /**
      * @param cs the CharSequence
      * @return cs.toString() when cs is not null, otherwise returns null.
@@ -101,12 +122,314 @@ public final class StringExtensions {
      * @param args
      * @return the String
      * @see String#format(Locale, String, Object...)
+     * @see FormatTemplate
      */
     public static String fmt(CharSequence cs, Optional<Locale> lopt, Object... args) {
         if (cs == null) {
             return null;
         }
-        return lopt.map(l -> String.format(l, cs.toString(), args)).orElse(String.format(cs.toString(), args));
+        return template(cs, lopt).format(args);
+    }
+
+    /**
+     * Appends the formatted text to out instead of creating a String.
+     * <p>
+     * The overloads taking a single int, long or double format it without boxing when the format allows;
+     * a char, byte, short or float is boxed, so that it is formatted as {@link #fmt(CharSequence, Object...)} does.
+     *
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param args
+     * @return out
+     * @throws UncheckedIOException if out throws IOException
+     * @throws java.nio.BufferOverflowException if out is a CharBuffer without enough room
+     * @see FormatTemplate#formatTo(Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, Object... args)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, args);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, int value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, long value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, double value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, char value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, byte value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, short value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, float value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return FormatTemplate.of(cs).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param args
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, Object... args)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, args);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, int value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, long value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, double value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, char value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, byte value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, short value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable to append to
+     * @param lopt
+     * @param value
+     * @return out
+     * @see #fmtTo(CharSequence, Appendable, Object...)
+     */
+    public static <A extends Appendable> A fmtTo(CharSequence cs, @NonNull A out, @NonNull Optional<Locale> lopt, float value)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        return template(cs, lopt).formatTo(out, value);
+    }
+
+    private static FormatTemplate template(CharSequence cs, Optional<Locale> lopt) {
+        return lopt.map(l -> FormatTemplate.of(cs, l)).orElseGet(() -> FormatTemplate.of(cs));
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param args
+     * @return the CharSequence that is formatted when it is first read
+     * @see #fmt(CharSequence, Object...)
+     */
+    public static LazyFormat fmtLazy(CharSequence cs, Object... args) {
+        return fmtLazy(cs, Optional.empty(), args);
+    }
+
+    /**
+     * The default Locale for formatting is taken when this method is called.
+     *
+     * @param cs the CharSequence
+     * @param lopt
+     * @param args
+     * @return the CharSequence that is formatted when it is first read
+     * @see #fmt(CharSequence, Optional, Object...)
+     */
+    public static LazyFormat fmtLazy(CharSequence cs, @NonNull Optional<Locale> lopt, Object... args) {
+        if (cs == null) {
+            return null;
+        }
+        return new LazyFormat(cs.toString(), lopt.orElseGet(() -> Locale.getDefault(Locale.Category.FORMAT)), args);
     }
 
     /**
@@ -129,11 +452,58 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        int start = URLCodec.indexOfUnsafe(cs);
+        if (start == cs.length()) {
+            return cs.toString();
+        }
+        StringBuilder sb = new StringBuilder(cs.length() + 16);
+        sb.append(cs, 0, start);
+        try {
+            URLCodec.encode(cs, start, charsetOpt.orElse(DEFAULT_CHARSET), sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable receiving the encoded URL
+     * @return out
+     * @see #DEFAULT_CHARSET
+     * @see URLEncoder#encode(String, String)
+     */
+    public static <A extends Appendable> A encodeURLTo(CharSequence cs, A out) {
+        return encodeURLTo(cs, out, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Walks cs once and appends the encoded URL without creating intermediate Strings.
+     *
+     * @param <A> the type of out
+     * @param cs the CharSequence
+     * @param out the Appendable receiving the encoded URL
+     * @param charsetOpt
+     * @return out
+     * @throws UncheckedIOException if out throws IOException
+     * @see URLEncoder#encode(String, String)
+     */
+    public static <A extends Appendable> A encodeURLTo(CharSequence cs, @NonNull A out, @NonNull Optional<Charset> charsetOpt)
+            throws UncheckedIOException {
+        if (cs == null) {
+            return out;
+        }
+        int start = URLCodec.indexOfUnsafe(cs);
         try {
-            return URLEncoder.encode(cs.toString(), charsetOpt.orElse(DEFAULT_CHARSET).name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+            out.append(cs, 0, start);
+            if (start < cs.length()) {
+                URLCodec.encode(cs, start, charsetOpt.orElse(DEFAULT_CHARSET), out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return out;
     }
 
     /**
@@ -156,11 +526,102 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
-        try {
-            return URLDecoder.decode(cs.toString(), charsetOpt.orElse(DEFAULT_CHARSET).name());
-        } catch (UnsupportedEncodingException e) {
-            throw new RuntimeException(e);
+        return decodeURL(cs, 0, cs.length(), charsetOpt);
+    }
+
+    /**
+     * Returns the range as it is when it contains neither '%' nor '+'.
+     *
+     * @param cs the CharSequence
+     * @param start the start index, inclusive
+     * @param end the end index, exclusive
+     * @param charsetOpt
+     * @return the decoded URL
+     * @throws IndexOutOfBoundsException if the range is outside of cs
+     * @throws IllegalArgumentException if an escape sequence is incomplete or not hexadecimal
+     * @see URLDecoder#decode(String, String)
+     */
+    public static String decodeURL(CharSequence cs, int start, int end, @NonNull Optional<Charset> charsetOpt)
+            throws IndexOutOfBoundsException, IllegalArgumentException {
+        if (cs == null) {
+            return null;
+        }
+        if (start < 0 || end > cs.length() || start > end) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "start=%d, end=%d, length=%d", start, end, cs.length()));
+        }
+        int escape = URLCodec.indexOfEscape(cs, start, end);
+        if (escape == end) {
+            return start == 0 && end == cs.length() ? cs.toString() : cs.subSequence(start, end).toString();
+        }
+        return URLCodec.decode(cs, start, escape, end, charsetOpt.orElse(DEFAULT_CHARSET));
+    }
+
+    /**
+     * @param cs the query string such as "a=1&amp;b=2"
+     * @param consumer the callback receiving each parameter
+     * @see #forEachQueryParameter(CharSequence, Consumer, Optional)
+     */
+    public static void forEachQueryParameter(CharSequence cs, Consumer<QueryParameter> consumer) {
+        forEachQueryParameter(cs, consumer, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Walks cs once and passes each non-empty parameter to consumer in order.
+     * A key or a value is decoded only when consumer asks for it.
+     * The QueryParameter is reused and is valid only during the callback.
+     *
+     * @param cs the query string such as "a=1&amp;b=2"
+     * @param consumer the callback receiving each parameter
+     * @param charsetOpt
+     */
+    public static void forEachQueryParameter(CharSequence cs, @NonNull Consumer<QueryParameter> consumer,
+            @NonNull Optional<Charset> charsetOpt) {
+        if (cs == null) {
+            return;
+        }
+        QueryParameter parameter = new QueryParameter(charsetOpt);
+        int length = cs.length();
+        int start = 0;
+        int separator = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? cs.charAt(i) : '&';
+            if (c == '=' && separator < 0) {
+                separator = i;
+            } else if (c == '&') {
+                if (i > start) {
+                    consumer.accept(parameter.reset(cs, start, separator < 0 ? i : separator, i));
+                }
+                start = i + 1;
+                separator = -1;
+            }
+        }
+    }
+
+    /**
+     * @param cs the query string such as "a=1&amp;b=2"
+     * @return the decoded values by the decoded keys, in the order of appearance
+     * @see #parseQuery(CharSequence, Optional)
+     */
+    public static Map<String, List<String>> parseQuery(CharSequence cs) {
+        return parseQuery(cs, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * @param cs the query string such as "a=1&amp;b=2"
+     * @param charsetOpt
+     * @return the decoded values by the decoded keys, in the order of appearance
+     * @throws IllegalArgumentException if cs contains an illegal escape sequence
+     */
+    public static Map<String, List<String>> parseQuery(CharSequence cs, @NonNull Optional<Charset> charsetOpt)
+            throws IllegalArgumentException {
+        if (cs == null) {
+            return null;
         }
+        Map<String, List<String>> map = new LinkedHashMap<>();
+        forEachQueryParameter(cs, parameter -> map.computeIfAbsent(parameter.getKey(), k -> new ArrayList<>(1))
+                .add(parameter.getValue()), charsetOpt);
+        return map;
     }
 
     /**
@@ -172,26 +633,39 @@ public final class StringExtensions {
     }
 
     /**
+     * A CharSequence longer than {@value #STREAMING_THRESHOLD} characters is encoded as it is read.
+     *
      * @param cs the CharSequence to convert
      * @param charsetOpt for converting byte array from CharSequence
      * @return the InputStream
+     * @see CharSequenceInputStream
      */
     public static InputStream toInputStream(CharSequence cs, @NonNull Optional<Charset> charsetOpt) {
         if (cs == null) {
             return null;
         }
-        return new ByteArrayInputStream(cs.toString().getBytes(charsetOpt.orElse(DEFAULT_CHARSET)));
+        if (cs.length() > STREAMING_THRESHOLD) {
+            return new CharSequenceInputStream(cs, charsetOpt);
+        }
+        ByteBuffer bytes = toByteBuffer(cs, charsetOpt);
+        return new ByteArrayInputStream(bytes.array(), bytes.arrayOffset(), bytes.remaining());
     }
 
     /**
+     * A CharSequence other than String is read in place without being copied.
+     *
      * @param cs the CharSequence
      * @return the Reader
+     * @see CharSequenceReader
      */
     public static Reader toReader(CharSequence cs) {
         if (cs == null) {
             return null;
         }
-        return new StringReader(cs.toString());
+        if (cs instanceof String) {
+            return new StringReader((String) cs);
+        }
+        return new CharSequenceReader(cs);
     }
 
     /**
@@ -224,6 +698,31 @@ public final class StringExtensions {
         }
     }
 
+    /**
+     * @param cs the CharSequence
+     * @param cache the cache of parsed URIs
+     * @return the URI
+     * @see URICache#get(CharSequence)
+     */
+    public static URI toURI(CharSequence cs, @NonNull URICache cache) {
+        if (cs == null) {
+            return null;
+        }
+        return cache.get(cs);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the component offsets of cs, without validating it
+     * @see ParsedURI#parse(CharSequence)
+     */
+    public static ParsedURI toParsedURI(CharSequence cs) {
+        if (cs == null) {
+            return null;
+        }
+        return ParsedURI.parse(cs);
+    }
+
     /**
      * @param cs the CharSequence
      * @return the File
@@ -238,12 +737,26 @@ public final class StringExtensions {
     /**
      * @param cs the CharSequence
      * @return the Path
+     * @see java.nio.file.FileSystem#getPath(String, String...)
      */
     public static Path toPath(CharSequence cs) {
         if (cs == null) {
             return null;
         }
-        return toFile(cs).toPath();
+        return FileSystems.getDefault().getPath(cs.toString());
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param cache the cache of converted paths
+     * @return the Path
+     * @see PathCache#get(CharSequence)
+     */
+    public static Path toPath(CharSequence cs, @NonNull PathCache cache) {
+        if (cs == null) {
+            return null;
+        }
+        return cache.get(cs);
     }
 
     /**
@@ -287,7 +800,7 @@ public final class StringExtensions {
         if (cs == null) {
             return (byte) 0;
         }
-        return Byte.parseByte(cs.toString(), radix);
+        return parseByte(cs, radix);
     }
 
     /**
@@ -302,7 +815,7 @@ public final class StringExtensions {
             return def;
         }
         try {
-            return Byte.parseByte(cs.toString(), radix);
+            return parseByte(cs, radix);
         } catch (NumberFormatException e) {
             return def;
         }
@@ -327,9 +840,8 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
-        String s = cs.toString();
         try {
-            return Byte.valueOf(s, radix);
+            return Byte.valueOf(parseByte(cs, radix));
         } catch (NumberFormatException ignore) {
             LOGGER.debug(
                     "{} has occurred at {}#toByteObject(CharSequence, int). {}",
@@ -358,7 +870,7 @@ public final class StringExtensions {
         if (cs == null) {
             return (byte) 0;
         }
-        return Short.parseShort(cs.toString(), radix);
+        return parseShort(cs, radix);
     }
 
     /**
@@ -373,7 +885,7 @@ public final class StringExtensions {
             return def;
         }
         try {
-            return Short.parseShort(cs.toString(), radix);
+            return parseShort(cs, radix);
         } catch (NumberFormatException e) {
             return def;
         }
@@ -399,7 +911,7 @@ public final class StringExtensions {
             return null;
         }
         try {
-            return Short.valueOf(cs.toString(), radix);
+            return Short.valueOf(parseShort(cs, radix));
         } catch (NumberFormatException ignore) {
             LOGGER.debug(
                     "{} has occurred at {}#toShortObject(CharSequence, int). {}",
@@ -428,7 +940,7 @@ public final class StringExtensions {
         if (cs == null) {
             return 0;
         }
-        return Integer.parseInt(cs.toString(), radix);
+        return parseInt(cs, radix);
     }
 
     /**
@@ -443,7 +955,7 @@ public final class StringExtensions {
             return def;
         }
         try {
-            return Integer.parseInt(cs.toString(), radix);
+            return parseInt(cs, radix);
         } catch (NumberFormatException e) {
             return def;
         }
@@ -469,7 +981,7 @@ public final class StringExtensions {
             return null;
         }
         try {
-            return Integer.valueOf(cs.toString(), radix);
+            return Integer.valueOf(parseInt(cs, radix));
         } catch (NumberFormatException ignore) {
             LOGGER.debug(
                     "{} has occurred at {}#toIntObject(CharSequence, int). {}",
@@ -498,7 +1010,7 @@ public final class StringExtensions {
         if (cs == null) {
             return 0;
         }
-        return Long.parseLong(cs.toString(), radix);
+        return parseLong(cs, radix);
     }
 
     /**
@@ -513,7 +1025,7 @@ public final class StringExtensions {
             return def;
         }
         try {
-            return Long.parseLong(cs.toString(), radix);
+            return parseLong(cs, radix);
         } catch (NumberFormatException e) {
             return def;
         }
@@ -539,7 +1051,7 @@ public final class StringExtensions {
             return null;
         }
         try {
-            return Long.valueOf(cs.toString(), radix);
+            return Long.valueOf(parseLong(cs, radix));
         } catch (NumberFormatException ignore) {
             LOGGER.debug(
                     "{} has occurred at {}#toLongObject(CharSequence, int). {}",
@@ -549,6 +1061,24 @@ public final class StringExtensions {
         }
     }
 
+    // a String goes to the JDK as before; any other CharSequence, such as a CharSlice, is parsed in place
+
+    private static byte parseByte(CharSequence cs, int radix) throws NumberFormatException {
+        return cs instanceof String ? Byte.parseByte((String) cs, radix) : NumberParser.parseByte(cs, radix);
+    }
+
+    private static short parseShort(CharSequence cs, int radix) throws NumberFormatException {
+        return cs instanceof String ? Short.parseShort((String) cs, radix) : NumberParser.parseShort(cs, radix);
+    }
+
+    private static int parseInt(CharSequence cs, int radix) throws NumberFormatException {
+        return cs instanceof String ? Integer.parseInt((String) cs, radix) : NumberParser.parseInt(cs, radix);
+    }
+
+    private static long parseLong(CharSequence cs, int radix) throws NumberFormatException {
+        return cs instanceof String ? Long.parseLong((String) cs, radix) : NumberParser.parseLong(cs, radix);
+    }
+
     /**
      * @param cs the CharSequence
      * @return the BigInteger
@@ -699,6 +1229,162 @@ public final class StringExtensions {
         return CharBuffer.wrap(cs);
     }
 
+    /**
+     * Walks cs once and passes each field separated by delimiter to consumer in order. Unlike
+     * String#split, the delimiter is not a regular expression and trailing empty fields are kept, so
+     * "a,,b," has four fields. The CharSlice is reused and is valid only during the callback.
+     *
+     * @param cs the CharSequence
+     * @param delimiter
+     * @param consumer the callback receiving each field
+     */
+    public static void forEachField(CharSequence cs, char delimiter, @NonNull Consumer<CharSlice> consumer) {
+        if (cs == null) {
+            return;
+        }
+        CharSlice slice = new CharSlice(cs, 0, 0);
+        int length = cs.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (cs.charAt(i) == delimiter) {
+                consumer.accept(slice.reset(cs, start, i));
+                start = i + 1;
+            }
+        }
+        consumer.accept(slice.reset(cs, start, length));
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param delimiter the non-empty delimiter, matched literally
+     * @param consumer the callback receiving each field
+     * @throws IllegalArgumentException if delimiter is empty
+     * @see #forEachField(CharSequence, char, Consumer)
+     */
+    public static void forEachField(CharSequence cs, @NonNull CharSequence delimiter,
+            @NonNull Consumer<CharSlice> consumer) throws IllegalArgumentException {
+        if (delimiter.length() == 0) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        if (cs == null) {
+            return;
+        }
+        CharSlice slice = new CharSlice(cs, 0, 0);
+        int start = 0;
+        for (int i = indexOf(cs, delimiter, 0); i >= 0; i = indexOf(cs, delimiter, start)) {
+            consumer.accept(slice.reset(cs, start, i));
+            start = i + delimiter.length();
+        }
+        consumer.accept(slice.reset(cs, start, cs.length()));
+    }
+
+    /**
+     * @param cs a CSV record such as {@code a,"b,""c"""}
+     * @param consumer the callback receiving each unquoted field
+     * @throws IllegalArgumentException if a quoted field is not closed or is followed by anything but ','
+     * @see #forEachCsvField(CharSequence, char, Consumer)
+     */
+    public static void forEachCsvField(CharSequence cs, @NonNull Consumer<CharSlice> consumer)
+            throws IllegalArgumentException {
+        forEachCsvField(cs, ',', consumer);
+    }
+
+    /**
+     * Splits one CSV record as RFC 4180 describes: a field enclosed in double quotes may contain the
+     * delimiter and line breaks, and a doubled quote in it stands for one quote. A quoted field is passed
+     * without its quotes. The CharSlice is reused and is valid only during the callback.
+     *
+     * @param cs a CSV record
+     * @param delimiter
+     * @param consumer the callback receiving each unquoted field
+     * @throws IllegalArgumentException if a quoted field is not closed or is followed by anything but delimiter
+     */
+    public static void forEachCsvField(CharSequence cs, char delimiter, @NonNull Consumer<CharSlice> consumer)
+            throws IllegalArgumentException {
+        if (cs == null) {
+            return;
+        }
+        CsvFields.forEach(cs, delimiter, consumer);
+    }
+
+    /**
+     * Stores the start and end index of each field in offsets, two ints per field, for as many fields as
+     * fit. When the result is larger than offsets.length / 2, the remaining fields were counted but not
+     * stored.
+     *
+     * @param cs the CharSequence
+     * @param delimiter
+     * @param offsets the array receiving the start and end indices
+     * @return the number of fields in cs, or 0 when cs is null
+     * @see #forEachField(CharSequence, char, Consumer)
+     */
+    public static int splitOffsets(CharSequence cs, char delimiter, @NonNull int[] offsets) {
+        if (cs == null) {
+            return 0;
+        }
+        int length = cs.length();
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (cs.charAt(i) == delimiter) {
+                count = storeOffsets(offsets, count, start, i);
+                start = i + 1;
+            }
+        }
+        return storeOffsets(offsets, count, start, length);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param delimiter the non-empty delimiter, matched literally
+     * @param offsets the array receiving the start and end indices
+     * @return the number of fields in cs, or 0 when cs is null
+     * @throws IllegalArgumentException if delimiter is empty
+     * @see #splitOffsets(CharSequence, char, int[])
+     */
+    public static int splitOffsets(CharSequence cs, @NonNull CharSequence delimiter, @NonNull int[] offsets)
+            throws IllegalArgumentException {
+        if (delimiter.length() == 0) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        if (cs == null) {
+            return 0;
+        }
+        int count = 0;
+        int start = 0;
+        for (int i = indexOf(cs, delimiter, 0); i >= 0; i = indexOf(cs, delimiter, start)) {
+            count = storeOffsets(offsets, count, start, i);
+            start = i + delimiter.length();
+        }
+        return storeOffsets(offsets, count, start, cs.length());
+    }
+
+    private static int storeOffsets(int[] offsets, int count, int start, int end) {
+        if (count * 2 + 1 < offsets.length) {
+            offsets[count * 2] = start;
+            offsets[count * 2 + 1] = end;
+        }
+        return count + 1;
+    }
+
+    private static int indexOf(CharSequence cs, CharSequence target, int fromIndex) {
+        char first = target.charAt(0);
+        int last = cs.length() - target.length();
+        for (int i = fromIndex; i <= last; i++) {
+            if (cs.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length() && cs.charAt(i + j) == target.charAt(j)) {
+                j++;
+            }
+            if (j == target.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * @param cs the CharSequence
      * @return the ByteBuffer
@@ -718,10 +1404,78 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
-        return ByteBuffer.wrap(cs.toString().getBytes(charsetOpt.orElse(DEFAULT_CHARSET)));
+        Charset charset = charsetOpt.orElse(DEFAULT_CHARSET);
+        if (cs instanceof String) {
+            return ByteBuffer.wrap(((String) cs).getBytes(charset));
+        }
+        // encodes straight from the CharSequence instead of copying it into a String first;
+        // one byte per character is tried first and the rest continues in a buffer that cannot overflow
+        int length = cs.length();
+        float maxBytesPerChar = CharsetCache.encoder(charset).maxBytesPerChar();
+        ByteBuffer buffer;
+        if (ChunkedEncoder.isResumable(charset)) {
+            buffer = ByteBuffer.allocate(length);
+            int index = ChunkedEncoder.encode(cs, 0, buffer, charset);
+            if (index < length) {
+                buffer.flip();
+                buffer = ByteBuffer.allocate(buffer.remaining() + maxBytes(length - index, maxBytesPerChar)).put(buffer);
+                ChunkedEncoder.encode(cs, index, buffer, charset);
+            }
+        } else {
+            buffer = ByteBuffer.allocate(maxBytes(length, maxBytesPerChar) + 16);
+            ChunkedEncoder.encode(cs, 0, buffer, charset);
+        }
+        byte[] bytes = buffer.array();
+        return ByteBuffer.wrap(buffer.position() == bytes.length ? bytes : Arrays.copyOf(bytes, buffer.position()));
+    }
+
+    private static int maxBytes(int chars, float maxBytesPerChar) {
+        return (int) Math.ceil(chars * (double) maxBytesPerChar);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param fromIndex the index of the first character to encode
+     * @param dst the heap or direct buffer receiving the bytes from its position
+     * @return the index to resume from with a drained dst, cs.length() when every character was encoded
+     * @see #toByteBuffer(CharSequence, int, ByteBuffer, Optional)
+     */
+    public static int toByteBuffer(CharSequence cs, int fromIndex, ByteBuffer dst) {
+        return toByteBuffer(cs, fromIndex, dst, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Encodes as many characters as fit into dst without copying cs.
+     * When the returned index is less than cs.length(), dst is full; drain it and call again from that index.
+     * Resuming is exact for stateless charsets such as UTF-8; a stateful charset such as UTF-16 with a byte order
+     * mark starts over on every call.
+     *
+     * @param cs the CharSequence
+     * @param fromIndex the index of the first character to encode
+     * @param dst the heap or direct buffer receiving the bytes from its position
+     * @param charsetOpt
+     * @return the index to resume from with a drained dst, cs.length() when every character was encoded,
+     *         or 0 if cs is null
+     * @throws IndexOutOfBoundsException if fromIndex is outside of cs
+     * @throws ReadOnlyBufferException if dst is read-only
+     */
+    public static int toByteBuffer(CharSequence cs, int fromIndex, @NonNull ByteBuffer dst,
+            @NonNull Optional<Charset> charsetOpt) throws IndexOutOfBoundsException, ReadOnlyBufferException {
+        if (cs == null) {
+            return 0;
+        }
+        if (fromIndex < 0 || fromIndex > cs.length()) {
+            throw new IndexOutOfBoundsException(String.format("fromIndex=%d, length=%d", fromIndex, cs.length()));
+        }
+        if (dst.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        return ChunkedEncoder.encode(cs, fromIndex, dst, charsetOpt.orElse(DEFAULT_CHARSET));
     }
 
     /**
+     * An IP literal is converted without the resolver.
+     *
      * @param cs the CharSequence
      * @return the InetAddress
      * @throws IllegalArgumentException If the given string is illegal
@@ -731,6 +1485,10 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        Optional<InetAddress> literal = InetAddresses.parseLiteral(cs);
+        if (literal.isPresent()) {
+            return literal.get();
+        }
         try {
             return InetAddress.getByName(cs.toString());
         } catch (UnknownHostException e) {
@@ -738,6 +1496,45 @@ public final class StringExtensions {
         }
     }
 
+    /**
+     * @param cs the CharSequence
+     * @param cache the cache resolving host names
+     * @return the InetAddress
+     * @throws IllegalArgumentException If the given string is illegal
+     * @see InetAddressCache#get(CharSequence)
+     */
+    public static InetAddress toInetAddress(CharSequence cs, @NonNull InetAddressCache cache)
+            throws IllegalArgumentException {
+        if (cs == null) {
+            return null;
+        }
+        return cache.get(cs);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the InetAddress resolved on the threads of the default AsyncHostResolver
+     * @see AsyncHostResolver#getDefault()
+     */
+    public static CompletableFuture<InetAddress> toInetAddressAsync(CharSequence cs) {
+        return toInetAddressAsync(cs, AsyncHostResolver.getDefault());
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param resolver
+     * @return the InetAddress, completed with null if cs is null, or exceptionally with
+     *         IllegalArgumentException if the host cannot be resolved
+     * @see AsyncHostResolver#resolve(CharSequence)
+     */
+    public static CompletableFuture<InetAddress> toInetAddressAsync(CharSequence cs,
+            @NonNull AsyncHostResolver resolver) {
+        if (cs == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return resolver.resolve(cs);
+    }
+
     /**
      * @param cs the CharSequence
      * @return the parsed date-time
@@ -878,10 +1675,39 @@ public final class StringExtensions {
         if (language == null) {
             return null;
         }
-        return countryOpt.map(country -> 
-                variantOpt.map(variant -> new Locale(language.toString(), country, variant))
-                .orElse(new Locale(language.toString(), country)))
-                .orElse(new Locale(language.toString()));
+        // the variant is ignored without a country, as it always has been
+        return countryOpt.map(country -> new Locale(language.toString(), country, variantOpt.orElse("")))
+                .orElseGet(() -> new Locale(language.toString()));
+    }
+
+    /**
+     * accepts "en", "en_US", "en-US" and BCP 47 tags such as "zh-Hant-TW". The Locale is cached by the tag.
+     *
+     * @param cs the CharSequence
+     * @return the Locale, Locale.ROOT for "*"; an ill-formed tag keeps its subtags before the first ill-formed
+     *         one as Locale.forLanguageTag does, so "en-US-!!" gives en_US and "!!" gives Locale.ROOT
+     * @see Locale#forLanguageTag(String)
+     */
+    public static Locale parseLocale(CharSequence cs) {
+        if (cs == null) {
+            return null;
+        }
+        return LocaleParser.parse(cs);
+    }
+
+    /**
+     * Entries are sorted by their quality values, keeping the order of the header for equal values.
+     * Entries whose quality value is 0 or malformed are left out.
+     *
+     * @param cs the value of an Accept-Language header such as "fr-CH, fr;q=0.9, *;q=0.5"
+     * @return the unmodifiable list of the weighted locales
+     * @see #parseLocale(CharSequence)
+     */
+    public static List<WeightedLocale> parseAcceptLanguage(CharSequence cs) {
+        if (cs == null) {
+            return null;
+        }
+        return LocaleParser.parseAcceptLanguage(cs);
     }
 
     /**
@@ -900,7 +1726,18 @@ public final class StringExtensions {
         if (name == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(Security.getProvider(name));
+        return SecurityServices.getProvider(name);
+    }
+
+    /**
+     * Signature, KeyAgreement, Cipher and Mac do not use this: pinning them to the first provider would
+     * defeat the delayed provider selection that finds a provider accepting the key, such as PKCS#11.
+     */
+    private static Optional<Provider> resolveProvider(String type, String algorithm, Optional<Provider> providerOpt) {
+        if (providerOpt.isPresent()) {
+            return providerOpt;
+        }
+        return SecurityServices.getServiceProvider(type, algorithm);
     }
     
     /**
@@ -924,11 +1761,13 @@ public final class StringExtensions {
         if (algorithm == null) {
             return null;
         }
+        String name = algorithm.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("MessageDigest", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return MessageDigest.getInstance(algorithm.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return MessageDigest.getInstance(name, resolvedOpt.get());
             }
-            return MessageDigest.getInstance(algorithm.toString());
+            return MessageDigest.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -955,11 +1794,13 @@ public final class StringExtensions {
         if (algorithm == null) {
             return null;
         }
+        String name = algorithm.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("KeyFactory", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return KeyFactory.getInstance(algorithm.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return KeyFactory.getInstance(name, resolvedOpt.get());
             }
-            return KeyFactory.getInstance(algorithm.toString());
+            return KeyFactory.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -984,16 +1825,47 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("KeyStore", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return KeyStore.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return KeyStore.getInstance(name, resolvedOpt.get());
             }
-            return KeyStore.getInstance(cs.toString());
+            return KeyStore.getInstance(name);
         } catch (KeyStoreException e) {
             throw new IllegalArgumentException(e);
         }
     }
 
+    /**
+     * @param cs the path of the keystore file
+     * @param type the keystore type
+     * @param password
+     * @return the loaded KeyStore, shared while the file is unchanged
+     * @throws IllegalArgumentException
+     * @see KeyStoreCache#load(Path, CharSequence, char[], Optional)
+     */
+    public static KeyStore loadKeyStore(CharSequence cs, CharSequence type, char[] password) throws IllegalArgumentException {
+        return loadKeyStore(cs, type, password, Optional.empty());
+    }
+
+    /**
+     * @param cs the path of the keystore file
+     * @param type the keystore type
+     * @param password
+     * @param providerOpt
+     * @return the loaded KeyStore, shared while the file is unchanged
+     * @throws IllegalArgumentException
+     * @see KeyStoreCache#load(Path, CharSequence, char[], Optional)
+     */
+    public static KeyStore loadKeyStore(CharSequence cs, CharSequence type, char[] password, @NonNull Optional<Provider> providerOpt)
+            throws IllegalArgumentException {
+        if (cs == null) {
+            return null;
+        }
+        return KeyStoreCache.load(toPath(cs), type, password, providerOpt);
+    }
+
     /**
      * @param cs the CharSequence
      * @return the Signature
@@ -1013,11 +1885,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
         try {
+            // not resolved in advance: without a provider the JCA picks one that accepts the key at init
             if (providerOpt.isPresent()) {
-                return Signature.getInstance(cs.toString(), providerOpt.get());
+                return Signature.getInstance(name, providerOpt.get());
             }
-            return Signature.getInstance(cs.toString());
+            return Signature.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1042,11 +1916,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("SecureRandom", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return SecureRandom.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return SecureRandom.getInstance(name, resolvedOpt.get());
             }
-            return SecureRandom.getInstance(cs.toString());
+            return SecureRandom.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1071,11 +1947,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("KeyPairGenerator", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return KeyPairGenerator.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return KeyPairGenerator.getInstance(name, resolvedOpt.get());
             }
-            return KeyPairGenerator.getInstance(cs.toString());
+            return KeyPairGenerator.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1100,11 +1978,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("AlgorithmParameters", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return AlgorithmParameters.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return AlgorithmParameters.getInstance(name, resolvedOpt.get());
             }
-            return AlgorithmParameters.getInstance(cs.toString());
+            return AlgorithmParameters.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1129,11 +2009,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("AlgorithmParameterGenerator", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return AlgorithmParameterGenerator.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return AlgorithmParameterGenerator.getInstance(name, resolvedOpt.get());
             }
-            return AlgorithmParameterGenerator.getInstance(cs.toString());
+            return AlgorithmParameterGenerator.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1180,7 +2062,7 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
-        return Charset.forName(cs.toString());
+        return CharsetCache.forName(cs.toString());
     }
 
     /**
@@ -1212,6 +2094,129 @@ public final class StringExtensions {
         }
     }
 
+    /**
+     * @param cs the CharSequence to encrypt
+     * @param cipher the initialized Cipher
+     * @param out the buffer receiving the cipher text
+     * @return the number of bytes written into out
+     * @throws BufferOverflowException if out is too small; its position is left unchanged
+     * @throws IllegalArgumentException
+     * @see #DEFAULT_CHARSET
+     */
+    public static int encrypt(CharSequence cs, Cipher cipher, ByteBuffer out) throws BufferOverflowException, IllegalArgumentException {
+        return encrypt(cs, cipher, out, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Encodes cs and passes it through the Cipher in fixed-size chunks, so neither the plain text
+     * nor the cipher text is materialized on heap.
+     *
+     * @param cs the CharSequence to encrypt
+     * @param cipher the initialized Cipher
+     * @param out the buffer receiving the cipher text, typically a direct buffer
+     * @param charsetOpt
+     * @return the number of bytes written into out
+     * @throws BufferOverflowException if out is too small; its position is left unchanged, but the chunks
+     *             before the one that did not fit have already passed through the Cipher, which must be
+     *             initialized again before it is used
+     * @throws IllegalArgumentException
+     */
+    public static int encrypt(CharSequence cs, @NonNull Cipher cipher, @NonNull ByteBuffer out, @NonNull Optional<Charset> charsetOpt)
+            throws BufferOverflowException, IllegalArgumentException {
+        if (cs == null) {
+            return 0;
+        }
+        CharsetEncoder encoder = CharsetCache.encoder(charsetOpt.orElse(DEFAULT_CHARSET));
+        int position = out.position();
+        try {
+            ChunkedEncoder.<ShortBufferException>encode(cs, encoder, ChunkedEncoder.localChunk(), chunk -> cipher.update(chunk, out));
+            cipher.doFinal(EMPTY_BUFFER.duplicate(), out);
+            return out.position() - position;
+        } catch (ShortBufferException e) {
+            out.position(position);
+            throw new BufferOverflowException();
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            out.position(position);
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @param cs the CharSequence to encrypt
+     * @param cipher the initialized Cipher
+     * @param channel the blocking channel receiving the cipher text
+     * @return the number of bytes written into channel
+     * @throws IOException
+     * @throws IllegalArgumentException
+     * @see #DEFAULT_CHARSET
+     */
+    public static long encrypt(CharSequence cs, Cipher cipher, WritableByteChannel channel) throws IOException, IllegalArgumentException {
+        return encrypt(cs, cipher, channel, DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * Encodes cs and passes it through the Cipher in fixed-size chunks, so the memory used does not
+     * depend on the length of cs.
+     *
+     * @param cs the CharSequence to encrypt
+     * @param cipher the initialized Cipher
+     * @param channel the blocking channel receiving the cipher text
+     * @param charsetOpt
+     * @return the number of bytes written into channel
+     * @throws IOException
+     * @throws IllegalArgumentException
+     */
+    public static long encrypt(CharSequence cs, @NonNull Cipher cipher, @NonNull WritableByteChannel channel,
+            @NonNull Optional<Charset> charsetOpt) throws IOException, IllegalArgumentException {
+        if (cs == null) {
+            return 0L;
+        }
+        CharsetEncoder encoder = CharsetCache.newEncoder(charsetOpt.orElse(DEFAULT_CHARSET));
+        ByteBuffer chunk = ByteBuffer.allocate(ChunkedEncoder.DEFAULT_CHUNK_SIZE);
+        // the channel may encrypt on this thread too, so the direct buffer is taken rather than shared
+        ByteBuffer[] out = {ChunkedEncoder.takeOutput(cipher.getOutputSize(chunk.capacity()))};
+        try {
+            long[] written = {0L};
+            ChunkedEncoder.<IOException>encode(cs, encoder, chunk, in -> {
+                out[0] = ensureOutputSize(out[0], cipher.getOutputSize(in.remaining()));
+                try {
+                    cipher.update(in, out[0]);
+                } catch (ShortBufferException e) {
+                    throw new IllegalStateException(e);
+                }
+                written[0] += writeFully(out[0], channel);
+            });
+            out[0] = ensureOutputSize(out[0], cipher.getOutputSize(0));
+            try {
+                cipher.doFinal(EMPTY_BUFFER.duplicate(), out[0]);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            } catch (IllegalBlockSizeException | BadPaddingException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return written[0] + writeFully(out[0], channel);
+        } finally {
+            ChunkedEncoder.releaseOutput(out[0]);
+        }
+    }
+
+    private static ByteBuffer ensureOutputSize(ByteBuffer buffer, int size) {
+        if (buffer.capacity() < size) {
+            return ChunkedEncoder.takeOutput(size);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    private static int writeFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        int written = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return written;
+    }
+
     /**
      * @param cs algorithm
      * @return the KeyAgreement
@@ -1230,11 +2235,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
         try {
+            // not resolved in advance: without a provider the JCA picks one that accepts the key at init
             if (providerOpt.isPresent()) {
-                return KeyAgreement.getInstance(cs.toString(), providerOpt.get());
+                return KeyAgreement.getInstance(name, providerOpt.get());
             }
-            return KeyAgreement.getInstance(cs.toString());
+            return KeyAgreement.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1259,11 +2266,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("KeyGenerator", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return KeyGenerator.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return KeyGenerator.getInstance(name, resolvedOpt.get());
             }
-            return KeyGenerator.getInstance(cs.toString());
+            return KeyGenerator.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -1298,6 +2307,51 @@ public final class StringExtensions {
         }
     }
 
+    /**
+     * @param cs the CharSequence
+     * @param algorithm
+     * @param key
+     * @return the MAC of cs
+     * @throws IllegalArgumentException
+     * @see #DEFAULT_CHARSET
+     * @see KeyedMac#doFinal(CharSequence, Optional)
+     */
+    public static byte[] hmac(CharSequence cs, CharSequence algorithm, byte[] key) throws IllegalArgumentException {
+        return hmac(cs, algorithm, key, Optional.empty(), DEFAULT_CHARSET_OPT);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param algorithm
+     * @param key
+     * @param providerOpt
+     * @param charsetOpt
+     * @return the MAC of cs
+     * @throws IllegalArgumentException
+     * @see KeyedMac#doFinal(CharSequence, Optional)
+     */
+    public static byte[] hmac(CharSequence cs, CharSequence algorithm, byte[] key, @NonNull Optional<Provider> providerOpt,
+            @NonNull Optional<Charset> charsetOpt) throws IllegalArgumentException {
+        if (cs == null) {
+            return null;
+        }
+        return KeyedMac.of(algorithm, key, providerOpt).doFinal(cs, charsetOpt);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param mac
+     * @return the MAC of cs
+     * @see #DEFAULT_CHARSET
+     * @see KeyedMac#doFinal(CharSequence, Optional)
+     */
+    public static byte[] hmac(CharSequence cs, @NonNull KeyedMac mac) {
+        if (cs == null) {
+            return null;
+        }
+        return mac.doFinal(cs);
+    }
+
     /**
      * @param cs algorithm
      * @return the SecretKeyFactory
@@ -1317,11 +2371,13 @@ public final class StringExtensions {
         if (cs == null) {
             return null;
         }
+        String name = cs.toString();
+        Optional<Provider> resolvedOpt = resolveProvider("SecretKeyFactory", name, providerOpt);
         try {
-            if (providerOpt.isPresent()) {
-                return SecretKeyFactory.getInstance(cs.toString(), providerOpt.get());
+            if (resolvedOpt.isPresent()) {
+                return SecretKeyFactory.getInstance(name, resolvedOpt.get());
             }
-            return SecretKeyFactory.getInstance(cs.toString());
+            return SecretKeyFactory.getInstance(name);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalArgumentException(e);
         }
@@ -0,0 +1,47 @@
+package com.github.emalock3.common.extension;
+
+import java.net.URI;
+
+import lombok.NonNull;
+
+/**
+ * caches java.net.URI instances parsed from strings that appear again and again.
+ * <p>
+ * URI is immutable, so a cached instance is shared by every caller. When the cache is full, some
+ * entries are evicted. Strings that fail to parse are not cached.
+ */
+public final class URICache {
+
+    private final BoundedCache<String, URI> cache;
+
+    /**
+     * @param maxSize the maximum number of cached URIs
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    public URICache(int maxSize) throws IllegalArgumentException {
+        this.cache = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * @param cs the URI string
+     * @return the cached or newly parsed URI
+     * @throws IllegalArgumentException if cs violates RFC 2396
+     */
+    public URI get(@NonNull CharSequence cs) throws IllegalArgumentException {
+        return cache.computeIfAbsent(cs.toString(), StringExtensions::toURI);
+    }
+
+    /**
+     * removes every cached URI.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return the number of cached URIs
+     */
+    public int size() {
+        return cache.size();
+    }
+}
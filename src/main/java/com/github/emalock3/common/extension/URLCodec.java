@@ -0,0 +1,253 @@
+package com.github.emalock3.common.extension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * encodes and decodes application/x-www-form-urlencoded text like java.net.URLEncoder and
+ * java.net.URLDecoder, in one pass over a CharSequence.
+ */
+final class URLCodec {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /** buffers larger than this are not kept for the next call. */
+    private static final int MAX_RETAINED_LENGTH = 8192;
+
+    private static final ThreadLocal<DecodeBuffers> DECODE_BUFFERS = ThreadLocal.withInitial(DecodeBuffers::new);
+
+    /** the ASCII characters that are copied as they are. */
+    private static final boolean[] SAFE = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            SAFE[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            SAFE[c] = true;
+        }
+        SAFE['-'] = true;
+        SAFE['_'] = true;
+        SAFE['.'] = true;
+        SAFE['*'] = true;
+    }
+
+    private URLCodec() {
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @return the index of the first character that must be encoded, or cs.length() if there is none
+     */
+    static int indexOfUnsafe(CharSequence cs) {
+        int length = cs.length();
+        for (int i = 0; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c >= 128 || !SAFE[c]) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param start the index of the first character to encode
+     * @param charset
+     * @param out
+     * @throws IOException
+     */
+    static void encode(CharSequence cs, int start, Charset charset, Appendable out) throws IOException {
+        if (charset.equals(StandardCharsets.UTF_8)) {
+            encodeUTF8(cs, start, out);
+        } else {
+            encode(cs, start, cs.length(), charset, out);
+        }
+    }
+
+    private static void encodeUTF8(CharSequence cs, int start, Appendable out) throws IOException {
+        int length = cs.length();
+        for (int i = start; i < length; i++) {
+            char c = cs.charAt(i);
+            if (c < 0x80) {
+                if (SAFE[c]) {
+                    out.append(c);
+                } else if (c == ' ') {
+                    out.append('+');
+                } else {
+                    appendEscaped(out, c);
+                }
+            } else if (c < 0x800) {
+                appendEscaped(out, 0xC0 | (c >> 6));
+                appendEscaped(out, 0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(cs.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, cs.charAt(++i));
+                    appendEscaped(out, 0xF0 | (cp >> 18));
+                    appendEscaped(out, 0x80 | ((cp >> 12) & 0x3F));
+                    appendEscaped(out, 0x80 | ((cp >> 6) & 0x3F));
+                    appendEscaped(out, 0x80 | (cp & 0x3F));
+                } else {
+                    // an unpaired surrogate is replaced with '?' like String#getBytes(Charset)
+                    appendEscaped(out, '?');
+                }
+            } else {
+                appendEscaped(out, 0xE0 | (c >> 12));
+                appendEscaped(out, 0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(out, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static void encode(CharSequence cs, int start, int end, Charset charset, Appendable out) throws IOException {
+        int i = start;
+        while (i < end) {
+            char c = cs.charAt(i);
+            if (c < 0x80 && SAFE[c]) {
+                out.append(c);
+                i++;
+            } else if (c == ' ') {
+                out.append('+');
+                i++;
+            } else {
+                // like URLEncoder, a run of unsafe characters is converted to bytes at once
+                int runEnd = i + 1;
+                while (runEnd < end) {
+                    char next = cs.charAt(runEnd);
+                    if (next < 0x80 && (SAFE[next] || next == ' ')) {
+                        break;
+                    }
+                    runEnd++;
+                }
+                ByteBuffer bytes = charset.encode(CharBuffer.wrap(cs, i, runEnd));
+                while (bytes.hasRemaining()) {
+                    appendEscaped(out, bytes.get() & 0xFF);
+                }
+                i = runEnd;
+            }
+        }
+    }
+
+    private static void appendEscaped(Appendable out, int b) throws IOException {
+        out.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param start
+     * @param end
+     * @return the index of the first '%' or '+' in the range, or end if there is none
+     */
+    static int indexOfEscape(CharSequence cs, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = cs.charAt(i);
+            if (c == '%' || c == '+') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * @param cs the CharSequence
+     * @param start the index of the first character to decode
+     * @param escape the index of the first '%' or '+' in the range
+     * @param end
+     * @param charset
+     * @return the decoded range
+     * @throws IllegalArgumentException if an escape sequence is incomplete or not hexadecimal
+     */
+    static String decode(CharSequence cs, int start, int escape, int end, Charset charset)
+            throws IllegalArgumentException {
+        DecodeBuffers buffers = DECODE_BUFFERS.get();
+        CharsetDecoder decoder = CharsetCache.decoder(charset);
+        // every escaped byte takes three input characters, so this is enough for any charset
+        char[] chars = buffers.chars((int) Math.ceil((end - start) * Math.max(1.0f, decoder.maxCharsPerByte())));
+        byte[] bytes = buffers.bytes((end - escape) / 3);
+        int pos = 0;
+        for (int i = start; i < escape; i++) {
+            chars[pos++] = cs.charAt(i);
+        }
+        int i = escape;
+        while (i < end) {
+            char c = cs.charAt(i);
+            if (c == '+') {
+                chars[pos++] = ' ';
+                i++;
+            } else if (c == '%') {
+                int length = 0;
+                while (i < end && cs.charAt(i) == '%') {
+                    if (i + 2 >= end) {
+                        throw new IllegalArgumentException("URLDecoder: Incomplete trailing escape (%) pattern");
+                    }
+                    int hi = Character.digit(cs.charAt(i + 1), 16);
+                    int lo = Character.digit(cs.charAt(i + 2), 16);
+                    if (hi < 0 || lo < 0) {
+                        throw new IllegalArgumentException(String.format(
+                                "URLDecoder: Illegal hex characters in escape (%%) pattern - %s", cs.subSequence(i, i + 3)));
+                    }
+                    bytes[length++] = (byte) ((hi << 4) | lo);
+                    i += 3;
+                }
+                pos = decode(decoder, bytes, length, chars, pos);
+            } else {
+                chars[pos++] = c;
+                i++;
+            }
+        }
+        String decoded = new String(chars, 0, pos);
+        buffers.release();
+        return decoded;
+    }
+
+    private static int decode(CharsetDecoder decoder, byte[] bytes, int length, char[] chars, int pos) {
+        ByteBuffer in = ByteBuffer.wrap(bytes, 0, length);
+        CharBuffer out = CharBuffer.wrap(chars, pos, chars.length - pos);
+        decoder.reset();
+        CoderResult result = decoder.decode(in, out, true);
+        if (result.isUnderflow()) {
+            result = decoder.flush(out);
+        }
+        if (!result.isUnderflow()) {
+            throw new IllegalStateException(result.toString());
+        }
+        return out.position();
+    }
+
+    private static final class DecodeBuffers {
+
+        private char[] chars = new char[256];
+        private byte[] bytes = new byte[128];
+
+        char[] chars(int length) {
+            if (chars.length < length) {
+                chars = new char[length];
+            }
+            return chars;
+        }
+
+        byte[] bytes(int length) {
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            return bytes;
+        }
+
+        void release() {
+            if (chars.length > MAX_RETAINED_LENGTH) {
+                chars = new char[256];
+            }
+            if (bytes.length > MAX_RETAINED_LENGTH) {
+                bytes = new byte[128];
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.emalock3.common.extension;
+
+import java.util.Locale;
+
+/**
+ * a Locale with the quality value it was given in an Accept-Language header.
+ *
+ * @see StringExtensions#parseAcceptLanguage(CharSequence)
+ */
+public final class WeightedLocale {
+
+    private final Locale locale;
+    private final double weight;
+
+    WeightedLocale(Locale locale, double weight) {
+        this.locale = locale;
+        this.weight = weight;
+    }
+
+    /**
+     * @return the Locale, Locale.ROOT for "*" and for a tag without any well-formed subtag
+     */
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return the quality value between 0 exclusive and 1 inclusive
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof WeightedLocale)) {
+            return false;
+        }
+        WeightedLocale other = (WeightedLocale) obj;
+        return locale.equals(other.locale) && weight == other.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return locale.hashCode() * 31 + Double.hashCode(weight);
+    }
+
+    @Override
+    public String toString() {
+        return (locale.equals(Locale.ROOT) ? "*" : locale.toLanguageTag()) + ";q=" + weight;
+    }
+}
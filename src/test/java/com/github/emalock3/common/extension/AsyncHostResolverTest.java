@@ -0,0 +1,130 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AsyncHostResolverTest {
+
+    /**
+     * resolves "hostN.test" to 10.0.0.N after the latch opens and fails on anything else.
+     */
+    private static final class StandInResolver implements HostResolver {
+
+        private final CountDownLatch latch;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxRunning = new AtomicInteger();
+
+        StandInResolver(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            calls.incrementAndGet();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+                if (!host.matches("host\\d+\\.test")) {
+                    throw new UnknownHostException(host);
+                }
+                int n = Integer.parseInt(host.substring(4, host.indexOf('.')));
+                return new InetAddress[] {InetAddress.getByAddress(host, new byte[] {10, 0, 0, (byte) n})};
+            } catch (InterruptedException e) {
+                throw new UnknownHostException(host);
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+
+    @Test
+    public void testResolveDeduplicatesInFlightLookups() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        StandInResolver resolver = new StandInResolver(latch);
+        try (AsyncHostResolver async = AsyncHostResolver.of(resolver, 2)) {
+            CompletableFuture<InetAddress> first = async.resolve("host1.test");
+            CompletableFuture<InetAddress> second = async.resolve("HOST1.test");
+            assertThat(first.isDone(), is(false));
+            assertThat(async.getInFlight(), is(1));
+            latch.countDown();
+            assertThat(first.get(10, TimeUnit.SECONDS).getAddress(), is(new byte[] {10, 0, 0, 1}));
+            assertThat(second.get(10, TimeUnit.SECONDS), is(first.get()));
+            assertThat(resolver.calls.get(), is(1));
+        }
+    }
+
+    @Test
+    public void testResolveLiteral() throws Exception {
+        StandInResolver resolver = new StandInResolver(new CountDownLatch(0));
+        try (AsyncHostResolver async = AsyncHostResolver.of(resolver, 1)) {
+            CompletableFuture<InetAddress> future = async.resolve("192.0.2.1");
+            assertThat(future.isDone(), is(true));
+            assertThat(future.get(), is(InetAddress.getByName("192.0.2.1")));
+            assertThat(resolver.calls.get(), is(0));
+        }
+    }
+
+    @Test
+    public void testResolveUnknownHost() throws Exception {
+        StandInResolver resolver = new StandInResolver(new CountDownLatch(0));
+        try (AsyncHostResolver async = AsyncHostResolver.of(resolver, 1)) {
+            try {
+                async.resolve("unknown.test").get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), is(instanceOf(IllegalArgumentException.class)));
+                assertThat(e.getCause().getCause(), is(instanceOf(UnknownHostException.class)));
+            }
+            Throwable failure = async.resolveAll("unknown.test").handle((addresses, e) -> e).get(10, TimeUnit.SECONDS);
+            assertThat(failure, is(instanceOf(IllegalArgumentException.class)));
+        }
+    }
+
+    @Test
+    public void testResolveBatch() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        StandInResolver resolver = new StandInResolver(latch);
+        try (AsyncHostResolver async = AsyncHostResolver.of(resolver, 3)) {
+            CompletableFuture<Map<String, InetAddress>> future = async.resolveBatch(Arrays.asList(
+                    "host1.test", "host2.test", "bad.test", "host1.test", "host3.test", "host4.test", "10.0.0.9"));
+            Thread.sleep(100);
+            latch.countDown();
+            Map<String, InetAddress> resolved = future.get(10, TimeUnit.SECONDS);
+            assertThat(resolved.keySet(), contains("host1.test", "host2.test", "host3.test", "host4.test", "10.0.0.9"));
+            assertThat(resolved.get("host4.test").getAddress(), is(new byte[] {10, 0, 0, 4}));
+            assertThat(resolver.calls.get(), is(5));
+            assertThat(resolver.maxRunning.get(), is(lessThanOrEqualTo(3)));
+        }
+    }
+
+    @Test
+    public void testMaxConcurrencyWithThreadPerTaskExecutor() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        StandInResolver resolver = new StandInResolver(latch);
+        AsyncHostResolver async = new AsyncHostResolver(resolver, runnable -> new Thread(runnable).start(), 2);
+        CompletableFuture<Map<String, InetAddress>> future = async.resolveBatch(Arrays.asList(
+                "host1.test", "host2.test", "host3.test", "host4.test", "host5.test"));
+        Thread.sleep(100);
+        latch.countDown();
+        assertThat(future.get(10, TimeUnit.SECONDS).size(), is(5));
+        assertThat(resolver.maxRunning.get(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxConcurrency() {
+        new AsyncHostResolver(new StandInResolver(new CountDownLatch(0)), Runnable::run, 0);
+    }
+}
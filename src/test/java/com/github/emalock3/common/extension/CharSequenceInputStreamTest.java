@@ -0,0 +1,90 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class CharSequenceInputStreamTest {
+
+    private static StringBuilder text(int repeat) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            sb.append("abc\u3042\uD83D\uDE00").append(i);
+        }
+        return sb;
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        StringBuilder sb = text(100);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new CharSequenceInputStream(sb, Optional.empty(), 16)) {
+            int b;
+            while ((b = in.read()) >= 0) {
+                out.write(b);
+            }
+        }
+        assertThat(out.toByteArray(), is(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testReadArray() throws IOException {
+        StringBuilder sb = text(1000);
+        Optional<Charset> sjis = Optional.of(Charset.forName("Shift_JIS"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new CharSequenceInputStream(sb, sjis, 64)) {
+            byte[] buffer = new byte[100];
+            int n;
+            while ((n = in.read(buffer, 0, buffer.length)) >= 0) {
+                out.write(buffer, 0, n);
+            }
+            assertThat(in.read(buffer, 0, 0), is(0));
+        }
+        assertThat(out.toByteArray(), is(sb.toString().getBytes(Charset.forName("Shift_JIS"))));
+    }
+
+    @Test
+    public void testSkipAndAvailable() throws IOException {
+        StringBuilder sb = text(10);
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = new CharSequenceInputStream(sb, Optional.empty(), 16)) {
+            assertThat(in.available(), is(0));
+            assertThat(in.skip(20), is(20L));
+            assertThat(in.available(), is(greaterThan(0)));
+            assertThat(in.read(), is(bytes[20] & 0xFF));
+            assertThat(in.skip(Long.MAX_VALUE), is((long) bytes.length - 21));
+            assertThat(in.read(), is(-1));
+        }
+    }
+
+    @Test
+    public void testTransferTo() throws IOException {
+        StringBuilder sb = text(5000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CharSequenceInputStream in = new CharSequenceInputStream(sb, Optional.empty())) {
+            in.read();
+            assertThat(in.transferTo(out), is((long) sb.toString().getBytes(StandardCharsets.UTF_8).length - 1));
+        }
+        assertThat(out.size(), is(sb.toString().getBytes(StandardCharsets.UTF_8).length - 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws IOException {
+        InputStream in = new CharSequenceInputStream("abc", Optional.empty());
+        in.close();
+        in.read();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmallBuffer() {
+        new CharSequenceInputStream("abc", Optional.empty(), 2);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+public class CharSequenceReaderTest {
+
+    private static String readAll(Reader reader, int bufferSize) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buffer = new char[bufferSize];
+        for (int n; (n = reader.read(buffer, 0, buffer.length)) >= 0;) {
+            sb.append(buffer, 0, n);
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        CharSequence[] sources = {
+                "abc\u3042def", new StringBuilder("abc\u3042def"), new StringBuffer("abc\u3042def"),
+                CharBuffer.wrap("xabc\u3042def".toCharArray(), 1, 7).slice(), new PlainSequence("abc\u3042def")};
+        for (CharSequence source : sources) {
+            try (Reader reader = new CharSequenceReader(source)) {
+                assertThat(reader.read(), is((int) 'a'));
+                assertThat(readAll(reader, 3), is("bc\u3042def"));
+                assertThat(reader.read(), is(-1));
+                assertThat(reader.read(new char[1], 0, 0), is(0));
+            }
+        }
+    }
+
+    @Test
+    public void testReadLeavesCharBufferPosition() throws IOException {
+        CharBuffer buffer = CharBuffer.wrap("abcdef");
+        buffer.position(2);
+        assertThat(readAll(new CharSequenceReader(buffer), 4), is("cdef"));
+        assertThat(buffer.position(), is(2));
+    }
+
+    @Test
+    public void testSkipMarkReset() throws IOException {
+        Reader reader = new CharSequenceReader(new StringBuilder("0123456789"));
+        assertThat(reader.markSupported(), is(true));
+        assertThat(reader.skip(3), is(3L));
+        reader.mark(0);
+        assertThat(reader.read(), is((int) '3'));
+        assertThat(reader.skip(-2), is(-2L));
+        assertThat(reader.read(), is((int) '2'));
+        reader.reset();
+        assertThat(reader.read(), is((int) '3'));
+        assertThat(reader.skip(100), is(6L));
+        assertThat(reader.skip(1), is(0L));
+        assertThat(reader.ready(), is(true));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadAfterClose() throws IOException {
+        Reader reader = new CharSequenceReader("abc");
+        reader.close();
+        reader.read();
+    }
+
+    private static final class PlainSequence implements CharSequence {
+
+        private final String value;
+
+        PlainSequence(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return value.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CharSliceTest {
+
+    @Test
+    public void testView() {
+        StringBuilder source = new StringBuilder("key=value");
+        CharSlice slice = new CharSlice(source, 4, 9);
+        assertThat(slice.getSource(), is(sameInstance((CharSequence) source)));
+        assertThat(slice.getStart(), is(4));
+        assertThat(slice.getEnd(), is(9));
+        assertThat(slice.length(), is(5));
+        assertThat(slice.charAt(0), is('v'));
+        assertThat(slice.toString(), is("value"));
+        assertThat(slice.contentEquals("value"), is(true));
+        assertThat(slice.contentEquals("valve"), is(false));
+        CharSlice sub = slice.subSequence(1, 3);
+        assertThat(sub.getSource(), is(sameInstance((CharSequence) source)));
+        assertThat(sub.toString(), is("al"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCharAtOutOfRange() {
+        new CharSlice("key=value", 0, 3).charAt(3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testConstructorOutOfRange() {
+        new CharSlice("key", 2, 4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSubSequenceOutOfRange() {
+        new CharSlice("key=value", 4, 9).subSequence(2, 6);
+    }
+
+    @Test
+    public void testParseErrorMessages() {
+        for (String value : new String[] { "", "-", "+", "1x", "99999999999999999999", "80", "100" }) {
+            for (int radix : new int[] { 10, 16, 2 }) {
+                assertThat(value + " " + radix, parseIntMessage(new CharSlice(" " + value, 1, value.length() + 1), radix),
+                        is(parseIntMessage(value, radix)));
+                assertThat(value + " " + radix, parseByteMessage(new StringBuilder(value), radix),
+                        is(parseByteMessage(value, radix)));
+            }
+        }
+    }
+
+    private static String parseIntMessage(CharSequence cs, int radix) {
+        try {
+            return String.valueOf(StringExtensions.toInt(cs, radix));
+        } catch (NumberFormatException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String parseByteMessage(CharSequence cs, int radix) {
+        try {
+            return String.valueOf(StringExtensions.toByte(cs, radix));
+        } catch (NumberFormatException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.Optional;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class CipherPoolTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final SecretKeySpec KEY = new SecretKeySpec(new byte[16], "AES");
+
+    private static Optional<AlgorithmParameterSpec> iv(int seed) {
+        byte[] iv = new byte[12];
+        iv[0] = (byte) seed;
+        return Optional.of(new GCMParameterSpec(128, iv));
+    }
+
+    @Test
+    public void testOf() {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        assertThat(pool.getTransformation(), is("AES/GCM/NoPadding"));
+        assertThat(CipherPool.of("AES/GCM/NoPadding"), is(sameInstance(pool)));
+    }
+
+    @Test
+    public void testOfBounded() {
+        // the transformation is case-insensitive, so each case variant gets a pool of its own
+        String transformation = "aes/cbc/nopadding";
+        for (int i = 0; i < 200; i++) {
+            StringBuilder sb = new StringBuilder(transformation);
+            for (int bit = 0; bit < 8; bit++) {
+                if ((i & 1 << bit) != 0) {
+                    int index = 8 + bit;
+                    sb.setCharAt(index, Character.toUpperCase(sb.charAt(index)));
+                }
+            }
+            CipherPool.of(sb);
+        }
+        assertThat(CipherPool.poolCount(), is(lessThanOrEqualTo(64)));
+    }
+
+    @Test
+    public void testClear() {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        CipherPool.clear();
+        assertThat(CipherPool.poolCount(), is(0));
+        assertThat(CipherPool.of("AES/GCM/NoPadding"), is(not(sameInstance(pool))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfUnknownTransformation() {
+        CipherPool.of("Unknown/GCM/NoPadding");
+    }
+
+    @Test
+    public void testBorrowAndRelease() {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        Cipher cipher = pool.borrow(Cipher.ENCRYPT_MODE, KEY, iv(1));
+        pool.release(cipher);
+        assertThat(pool.borrow(Cipher.ENCRYPT_MODE, KEY, iv(2)), is(sameInstance(cipher)));
+        pool.release(cipher);
+    }
+
+    @Test
+    public void testDoFinal() {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        byte[] encrypted = pool.doFinal(Cipher.ENCRYPT_MODE, KEY, iv(3), "hoge".getBytes(UTF8));
+        assertThat(new String(pool.doFinal(Cipher.DECRYPT_MODE, KEY, iv(3), encrypted), UTF8), is("hoge"));
+    }
+
+    @Test
+    public void testEncrypt() throws Exception {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        ByteBuffer out = ByteBuffer.allocateDirect(64);
+        out.position(1);
+        int written = pool.encrypt("\u3042hoge", KEY, iv(4), out);
+        assertThat(written, is(7 + 16));
+        assertThat(out.position(), is(1 + written));
+
+        out.flip();
+        out.position(1);
+        byte[] encrypted = new byte[out.remaining()];
+        out.get(encrypted);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, KEY, iv(4).get());
+        assertThat(encrypted, is(cipher.doFinal("\u3042hoge".getBytes(UTF8))));
+    }
+
+    @Test
+    public void testEncryptShortBuffer() {
+        CipherPool pool = CipherPool.of("AES/GCM/NoPadding");
+        ByteBuffer small = ByteBuffer.allocate(8);
+        int required = pool.encrypt("hoge", KEY, iv(5), small);
+        assertThat(required, is(lessThan(0)));
+        assertThat(small.position(), is(0));
+
+        ByteBuffer large = ByteBuffer.allocate(-required);
+        assertThat(pool.encrypt("hoge", KEY, iv(5), large), is(4 + 16));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDoFinalWithoutIv() {
+        CipherPool.of("AES/CBC/PKCS5Padding").doFinal(Cipher.ENCRYPT_MODE, KEY, Optional.empty(),
+                "hoge".getBytes(UTF8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEncryptWithoutIv() {
+        CipherPool.of("AES/GCM/NoPadding").encrypt("hoge", KEY, Optional.empty(), ByteBuffer.allocate(64));
+    }
+
+    @Test
+    public void testDoFinalWithoutParams() {
+        CipherPool pool = CipherPool.of("AES/ECB/PKCS5Padding");
+        byte[] encrypted = pool.doFinal(Cipher.ENCRYPT_MODE, KEY, Optional.empty(), "hoge".getBytes(UTF8));
+        assertThat(new String(pool.doFinal(Cipher.DECRYPT_MODE, KEY, Optional.empty(), encrypted), UTF8),
+                is("hoge"));
+    }
+
+    @Test
+    public void testDoFinalFailureDropsCipher() {
+        CipherPool pool = CipherPool.of("AES/ECB/PKCS5Padding");
+        Cipher cipher = pool.borrow(Cipher.DECRYPT_MODE, KEY, Optional.empty());
+        pool.release(cipher);
+        try {
+            pool.doFinal(Cipher.DECRYPT_MODE, KEY, Optional.empty(), new byte[5]);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getCause(), is(instanceOf(GeneralSecurityException.class)));
+        }
+        Cipher next = pool.borrow(Cipher.DECRYPT_MODE, KEY, Optional.empty());
+        assertThat(next, is(not(sameInstance(cipher))));
+        pool.release(next);
+    }
+}
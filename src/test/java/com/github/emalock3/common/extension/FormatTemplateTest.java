@@ -0,0 +1,130 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.IllegalFormatConversionException;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+
+import org.junit.Test;
+
+public class FormatTemplateTest {
+
+    @Test
+    public void testOf() {
+        FormatTemplate template = FormatTemplate.of("%s=%d", Locale.US);
+        assertThat(FormatTemplate.of(new StringBuilder("%s=%d"), Locale.US), is(sameInstance(template)));
+        assertThat(FormatTemplate.of("%s=%d", Locale.GERMANY), is(not(sameInstance(template))));
+        assertThat(template.getFormat(), is("%s=%d"));
+        assertThat(template.getLocale(), is(Locale.US));
+    }
+
+    @Test
+    public void testFormat() {
+        assertFormat("%s, %d, %x, %.2f, %f%%%n", "a", 1, 255, 1.005, -0.5);
+        assertFormat("%d %x %d %x", (byte) -1, (byte) -1, (short) -1, (short) -1);
+        assertFormat("%d %x", new BigInteger("-123456789012345678901234567890"),
+                new BigInteger("-123456789012345678901234567890"));
+        assertFormat("%.1f %.1f %.3f %.0f", 0.05, -0.0, Double.NaN, Double.NEGATIVE_INFINITY);
+        assertFormat("%.1f %.2f %.1f", 0.15f, new BigDecimal("1.005"), 1e300);
+        assertFormat("%s %d %.2f %.0f %f", null, null, null, null, null);
+        assertFormat("%5s|%-3d|%1$s|%08.3f", "ab", 1, 2.5);
+    }
+
+    @Test
+    public void testFormatLocale() {
+        for (Locale locale : new Locale[] { Locale.GERMANY, Locale.forLanguageTag("th-TH-u-nu-thai"),
+                Locale.forLanguageTag("ar-EG") }) {
+            assertThat(FormatTemplate.of("%d %.2f %x", locale).format(-12, 3.14159, 255),
+                    is(String.format(locale, "%d %.2f %x", -12, 3.14159, 255)));
+        }
+    }
+
+    @Test
+    public void testFormatNested() {
+        Object nested = new Object() {
+            @Override
+            public String toString() {
+                return FormatTemplate.of("<%s>", Locale.US).format("inner");
+            }
+        };
+        assertThat(FormatTemplate.of("[%s]", Locale.US).format(nested), is("[<inner>]"));
+    }
+
+    @Test
+    public void testFormatTo() {
+        StringBuilder sb = new StringBuilder("x=");
+        assertThat(FormatTemplate.of("%d", Locale.US).formatTo(sb, 1), is(sameInstance(sb)));
+        assertThat(sb.toString(), is("x=1"));
+    }
+
+    @Test
+    public void testFormatToAppendable() {
+        StringWriter writer = new StringWriter();
+        assertThat(FormatTemplate.of("%s-%d", Locale.US).formatTo(writer, "a", 1), is(sameInstance(writer)));
+        assertThat(writer.toString(), is("a-1"));
+        CharBuffer buffer = CharBuffer.allocate(8);
+        FormatTemplate.of("%x|", Locale.US).formatTo(buffer, 255);
+        FormatTemplate.of("%.1f", Locale.US).formatTo(buffer, 2.25);
+        buffer.flip();
+        assertThat(buffer.toString(), is("ff|2.3"));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testFormatToCharBufferOverflow() {
+        FormatTemplate.of("%s", Locale.US).formatTo(CharBuffer.allocate(2), "abc");
+    }
+
+    @Test
+    public void testFormatToPrimitive() {
+        for (String format : new String[] { "<%d>", "<%s>", "<%x>", "%%", "%5d" }) {
+            assertThat(FormatTemplate.of(format, Locale.US).formatTo(new StringBuilder(), Integer.MIN_VALUE).toString(),
+                    is(String.format(Locale.US, format, Integer.MIN_VALUE)));
+            assertThat(FormatTemplate.of(format, Locale.US).formatTo(new StringBuilder(), Long.MIN_VALUE).toString(),
+                    is(String.format(Locale.US, format, Long.MIN_VALUE)));
+        }
+        for (String format : new String[] { "<%f>", "<%s>", "<%.3f>", "%08.2f" }) {
+            assertThat(FormatTemplate.of(format, Locale.GERMANY).formatTo(new StringBuilder(), -1.0005).toString(),
+                    is(String.format(Locale.GERMANY, format, -1.0005)));
+        }
+    }
+
+    @Test
+    public void testFormatToNarrowPrimitive() {
+        assertThat(FormatTemplate.of("%s", Locale.US).formatTo(new StringBuilder(), 'c').toString(), is("c"));
+        assertThat(FormatTemplate.of("%x", Locale.US).formatTo(new StringBuilder(), (byte) -1).toString(), is("ff"));
+        assertThat(FormatTemplate.of("%x", Locale.US).formatTo(new StringBuilder(), (short) -1).toString(), is("ffff"));
+        assertThat(FormatTemplate.of("%s", Locale.US).formatTo(new StringBuilder(), 1.1f).toString(), is("1.1"));
+    }
+
+    @Test(expected = MissingFormatArgumentException.class)
+    public void testFormatToPrimitiveMissingArgument() {
+        FormatTemplate.of("%d %d", Locale.US).formatTo(new StringBuilder(), 1);
+    }
+
+    @Test(expected = IllegalFormatConversionException.class)
+    public void testFormatToPrimitiveIllegalConversion() {
+        FormatTemplate.of("%f", Locale.US).formatTo(new StringBuilder(), 1);
+    }
+
+    @Test(expected = MissingFormatArgumentException.class)
+    public void testFormatMissingArgument() {
+        FormatTemplate.of("%s %s", Locale.US).format("a");
+    }
+
+    @Test(expected = UnknownFormatConversionException.class)
+    public void testFormatUnknownConversion() {
+        FormatTemplate.of("%q", Locale.US).format("a");
+    }
+
+    private static void assertFormat(String format, Object... args) {
+        assertThat(FormatTemplate.of(format, Locale.US).format(args), is(String.format(Locale.US, format, args)));
+    }
+}
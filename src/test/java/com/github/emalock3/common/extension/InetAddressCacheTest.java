@@ -0,0 +1,99 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class InetAddressCacheTest {
+
+    private static final class CountingResolver implements HostResolver {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            calls.incrementAndGet();
+            if (host.startsWith("unknown")) {
+                throw new UnknownHostException(host);
+            }
+            return new InetAddress[] {
+                    InetAddress.getByAddress(host, new byte[] {10, 0, 0, 1}),
+                    InetAddress.getByAddress(host, new byte[] {10, 0, 0, 2})};
+        }
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        CountingResolver resolver = new CountingResolver();
+        InetAddressCache cache = new InetAddressCache(resolver, 1, 1, TimeUnit.MINUTES, 16);
+        InetAddress address = cache.get("example.test");
+        assertThat(address.getAddress(), is(new byte[] {10, 0, 0, 1}));
+        assertThat(cache.get(new StringBuilder("EXAMPLE.test")), is(sameInstance(address)));
+        assertThat(cache.getAll("example.test").length, is(2));
+        assertThat(resolver.calls.get(), is(1));
+        assertThat(cache.size(), is(1));
+        cache.invalidate("Example.Test");
+        cache.get("example.test");
+        assertThat(resolver.calls.get(), is(2));
+    }
+
+    @Test
+    public void testLiteralsAreNotResolved() throws Exception {
+        CountingResolver resolver = new CountingResolver();
+        InetAddressCache cache = new InetAddressCache(resolver, 1, 1, TimeUnit.MINUTES, 16);
+        assertThat(cache.get("192.168.0.1"), is(InetAddress.getByName("192.168.0.1")));
+        assertThat(cache.get("[::1]"), is(InetAddress.getByName("::1")));
+        assertThat(resolver.calls.get(), is(0));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testNegativeCaching() {
+        CountingResolver resolver = new CountingResolver();
+        InetAddressCache cache = new InetAddressCache(resolver, 1, 1, TimeUnit.MINUTES, 16);
+        for (int i = 0; i < 3; i++) {
+            try {
+                cache.get("unknown.test");
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getCause(), is(instanceOf(UnknownHostException.class)));
+            }
+        }
+        assertThat(resolver.calls.get(), is(1));
+    }
+
+    @Test
+    public void testExpiration() throws Exception {
+        CountingResolver resolver = new CountingResolver();
+        InetAddressCache cache = new InetAddressCache(resolver, 0, 0, TimeUnit.MILLISECONDS, 16);
+        cache.get("example.test");
+        cache.get("example.test");
+        assertThat(resolver.calls.get(), is(2));
+        try {
+            cache.get("unknown.test");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(cache.size(), is(1));
+        }
+    }
+
+    @Test
+    public void testMaxSize() {
+        InetAddressCache cache = new InetAddressCache(new CountingResolver(), 1, 1, TimeUnit.MINUTES, 8);
+        for (int i = 0; i < 100; i++) {
+            cache.get("host" + i + ".test");
+        }
+        assertThat(cache.size(), is(lessThanOrEqualTo(8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidTtl() {
+        new InetAddressCache(new CountingResolver(), -1, 0, TimeUnit.SECONDS, 8);
+    }
+}
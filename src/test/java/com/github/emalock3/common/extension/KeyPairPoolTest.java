@@ -0,0 +1,65 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.security.KeyPair;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class KeyPairPoolTest {
+
+    private static void awaitSize(KeyPairPool pool, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pool.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void testTake() throws Exception {
+        try (KeyPairPool pool = KeyPairPool.of("EC", 256, 1, 4)) {
+            awaitSize(pool, 4);
+            assertThat(pool.size(), is(4));
+            KeyPair keyPair = pool.take();
+            assertThat(keyPair.getPublic().getAlgorithm(), is("EC"));
+            assertThat(pool.take(), is(not(sameInstance(keyPair))));
+            assertThat(pool.size(), is(2));
+
+            KeyPairPool.Metrics metrics = pool.getMetrics();
+            assertThat(metrics.getTaken(), is(2L));
+            assertThat(metrics.getMisses(), is(0L));
+            assertThat(metrics.getGenerated(), is(greaterThanOrEqualTo(4L)));
+            assertThat(metrics.getAverageGenerationNanos(), is(greaterThan(0L)));
+        }
+    }
+
+    @Test
+    public void testTakeWhenClosed() {
+        KeyPairPool pool = KeyPairPool.of("EC", 256, 0, 1);
+        pool.close();
+        assertThat(pool.take().getPrivate().getAlgorithm(), is("EC"));
+        assertThat(pool.getMetrics().getMisses(), is(1L));
+        assertThat(pool.size(), is(0));
+    }
+
+    @Test
+    public void testPoll() throws Exception {
+        try (KeyPairPool pool = new KeyPairPool("EC", Optional.empty(), generator -> generator.initialize(256), 0, 2, 2)) {
+            assertThat(pool.poll(30, TimeUnit.SECONDS).isPresent(), is(true));
+            assertThat(pool.getAlgorithm(), is("EC"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWatermarks() {
+        KeyPairPool.of("EC", 256, 2, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAlgorithm() {
+        KeyPairPool.of("Unknown", 256, 0, 2);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.util.Optional;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeyStoreCacheTest {
+
+    private static final char[] PASSWORD = "changeit".toCharArray();
+
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = Files.createTempFile("KeyStoreCacheTest", ".p12");
+        store("first");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        KeyStoreCache.clear();
+        Files.deleteIfExists(file);
+    }
+
+    private void store(String alias) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        keyStore.load(null, PASSWORD);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(new SecretKeySpec(new byte[16], "AES")),
+                new KeyStore.PasswordProtection(PASSWORD));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            keyStore.store(out, PASSWORD);
+        }
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        KeyStore keyStore = KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+        assertThat(keyStore.containsAlias("first"), is(true));
+        assertThat(KeyStoreCache.load(file, "pkcs12", PASSWORD.clone(), Optional.empty()), is(sameInstance(keyStore)));
+    }
+
+    @Test
+    public void testLoadModified() throws Exception {
+        KeyStore keyStore = KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        store("second");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 2000));
+        KeyStore reloaded = KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+        assertThat(reloaded, is(not(sameInstance(keyStore))));
+        assertThat(reloaded.containsAlias("second"), is(true));
+    }
+
+    @Test
+    public void testInvalidate() {
+        KeyStore keyStore = KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+        KeyStoreCache.invalidate(file);
+        assertThat(KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty()), is(not(sameInstance(keyStore))));
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testLoadWrongPassword() {
+        KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+        KeyStoreCache.load(file, "PKCS12", "wrong".toCharArray(), Optional.empty());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void testLoadMissingFile() throws IOException {
+        Files.delete(file);
+        KeyStoreCache.load(file, "PKCS12", PASSWORD, Optional.empty());
+    }
+}
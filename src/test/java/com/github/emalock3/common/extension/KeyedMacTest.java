@@ -0,0 +1,84 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.charset.Charset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.junit.Test;
+
+public class KeyedMacTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final byte[] KEY = "secret".getBytes(UTF8);
+
+    private static Mac newMac(String algorithm) throws Exception {
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(KEY, algorithm));
+        return mac;
+    }
+
+    @Test
+    public void testOf() {
+        KeyedMac mac = KeyedMac.of("HmacSHA256", KEY);
+        assertThat(mac.getAlgorithm(), is("HmacSHA256"));
+        assertThat(KeyedMac.of("HmacSHA256", KEY.clone()), is(sameInstance(mac)));
+        assertThat(KeyedMac.of("HmacSHA1", KEY), is(not(sameInstance(mac))));
+    }
+
+    @Test
+    public void testCreateAndRemove() throws Exception {
+        KeyedMac created = KeyedMac.create("HmacSHA256", KEY, Optional.empty());
+        assertThat(KeyedMac.of("HmacSHA256", KEY), is(not(sameInstance(created))));
+        assertThat(created.doFinal("abc"), is(newMac("HmacSHA256").doFinal("abc".getBytes(UTF8))));
+        KeyedMac cached = KeyedMac.of("HmacSHA256", KEY);
+        KeyedMac.remove("HmacSHA256", KEY, Optional.empty());
+        assertThat(KeyedMac.of("HmacSHA256", KEY), is(not(sameInstance(cached))));
+    }
+
+    @Test
+    public void testOfBounded() {
+        for (int i = 0; i < 1000; i++) {
+            KeyedMac.of("HmacSHA256", new byte[] { (byte) i, (byte) (i >> 8) });
+        }
+        assertThat(KeyedMac.cacheSize(), is(lessThanOrEqualTo(256)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOfUnknownAlgorithm() {
+        KeyedMac.of("HmacUnknown", KEY);
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        KeyedMac mac = KeyedMac.of("HmacSHA256", KEY);
+        Mac local = mac.get();
+        local.update((byte) 1);
+        assertThat(mac.get(), is(sameInstance(local)));
+        assertThat(mac.get().doFinal(), is(newMac("HmacSHA256").doFinal()));
+
+        AtomicReference<Mac> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(mac.get()));
+        thread.start();
+        thread.join();
+        assertThat(other.get(), is(not(sameInstance(local))));
+    }
+
+    @Test
+    public void testDoFinal() throws Exception {
+        KeyedMac mac = KeyedMac.of("HmacSHA256", KEY);
+        Charset sjis = Charset.forName("Shift_JIS");
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            large.append("\u3042").append(i);
+        }
+        assertThat(mac.doFinal("hoge"), is(newMac("HmacSHA256").doFinal("hoge".getBytes(UTF8))));
+        assertThat(mac.doFinal(large), is(newMac("HmacSHA256").doFinal(large.toString().getBytes(UTF8))));
+        assertThat(mac.doFinal("\u3042", Optional.of(sjis)), is(newMac("HmacSHA256").doFinal("\u3042".getBytes(sjis))));
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class LazyFormatTest {
+
+    @Test
+    public void testFormatOnce() {
+        AtomicInteger calls = new AtomicInteger();
+        Object arg = new Object() {
+            @Override
+            public String toString() {
+                calls.incrementAndGet();
+                return "arg";
+            }
+        };
+        LazyFormat lazy = StringExtensions.fmtLazy("[%s]", Optional.of(Locale.US), arg);
+        assertThat(lazy.isFormatted(), is(false));
+        assertThat(calls.get(), is(0));
+        assertThat(lazy.length(), is(5));
+        assertThat(lazy.charAt(1), is('a'));
+        assertThat(lazy.subSequence(1, 4).toString(), is("arg"));
+        assertThat(lazy.toString(), is(sameInstance(lazy.toString())));
+        assertThat(lazy.isFormatted(), is(true));
+        assertThat(calls.get(), is(1));
+    }
+
+    @Test
+    public void testLocale() {
+        assertThat(StringExtensions.fmtLazy("%.2f", Optional.of(Locale.GERMANY), 1.5).toString(), is("1,50"));
+    }
+
+    @Test(expected = MissingFormatArgumentException.class)
+    public void testFormatError() {
+        StringExtensions.fmtLazy("%s %s", "a").toString();
+    }
+}
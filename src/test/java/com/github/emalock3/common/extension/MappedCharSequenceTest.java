@@ -0,0 +1,116 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedCharSequenceTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testUtf8() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append(i % 7 == 0 ? "\u3042\ud83d\ude00" : "a").append(i % 100 == 0 ? "\n" : "");
+        }
+        String expected = sb.toString();
+        Files.write(file, expected.getBytes(StandardCharsets.UTF_8));
+        MappedCharSequence cs = MappedCharSequence.open(file, StandardCharsets.UTF_8);
+        assertThat(cs.getCharset(), is(StandardCharsets.UTF_8));
+        assertThat(cs.length(), is(expected.length()));
+        for (int i = expected.length() - 1; i >= 0; i -= 13) {
+            assertThat(cs.charAt(i), is(expected.charAt(i)));
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            assertThat(cs.charAt(i), is(expected.charAt(i)));
+        }
+        assertThat(cs.toString(), is(expected));
+        assertThat(cs.subSequence(100, 200).toString(), is(expected.substring(100, 200)));
+    }
+
+    @Test
+    public void testMalformedUtf8() throws IOException {
+        Files.write(file, new byte[] { 'a', (byte) 0xc3, '(', (byte) 0xe0, (byte) 0x80 });
+        MappedCharSequence cs = MappedCharSequence.open(file, StandardCharsets.UTF_8);
+        assertThat(cs.toString(), is("a\ufffd(\ufffd\ufffd"));
+        assertThat(cs.charAt(3), is('\ufffd'));
+        Files.write(file, new byte[] { (byte) 0xe3, (byte) 0x81, 'A' });
+        assertThat(MappedCharSequence.open(file, StandardCharsets.UTF_8).toString(), is("\ufffd\ufffdA"));
+    }
+
+    @Test
+    public void testLatin1AndAscii() throws IOException {
+        Files.write(file, new byte[] { 'a', (byte) 0xe9, 'b' });
+        assertThat(MappedCharSequence.open(file, StandardCharsets.ISO_8859_1).toString(), is("a\u00e9b"));
+        MappedCharSequence ascii = MappedCharSequence.open(file, StandardCharsets.US_ASCII);
+        assertThat(ascii.charAt(1), is('\ufffd'));
+        assertThat(ascii.toString(), is("a\ufffdb"));
+    }
+
+    @Test
+    public void testWindow() throws IOException {
+        Files.write(file, "0123456789".getBytes(StandardCharsets.US_ASCII));
+        assertThat(MappedCharSequence.open(file, StandardCharsets.US_ASCII, 3, 4).toString(), is("3456"));
+        assertThat(MappedCharSequence.open(file, StandardCharsets.US_ASCII, 8, 4).toString(), is("89"));
+        assertThat(MappedCharSequence.open(file, StandardCharsets.US_ASCII, 10, 4).length(), is(0));
+        assertThat(MappedCharSequence.open(file, StandardCharsets.UTF_8, 20, 4).toString(), is(""));
+        assertThat(Files.size(file), is(10L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedCharset() throws IOException {
+        MappedCharSequence.open(file, StandardCharsets.UTF_16);
+    }
+
+    @Test
+    public void testForEachLine() throws IOException {
+        Files.write(file, "a\r\n\u3042b\rc\n\nd".getBytes(StandardCharsets.UTF_8));
+        List<String> lines = new ArrayList<>();
+        MappedCharSequence.open(file, StandardCharsets.UTF_8).forEachLine(line -> lines.add(line.toString()));
+        assertThat(lines, is(Arrays.asList("a", "\u3042b", "c", "", "d")));
+        for (int window = 1; window < 8; window++) {
+            List<String> windowed = new ArrayList<>();
+            MappedCharSequence.forEachLine(file, StandardCharsets.UTF_8, line -> windowed.add(line.toString()), window);
+            assertThat(windowed, is(lines));
+        }
+    }
+
+    @Test
+    public void testExtensions() throws IOException {
+        Files.write(file, "id=42\ncount=-7\n".getBytes(StandardCharsets.UTF_8));
+        MappedCharSequence cs = MappedCharSequence.open(file, StandardCharsets.UTF_8);
+        long[] sum = new long[1];
+        cs.forEachLine(line -> StringExtensions.forEachField(line, '=', field -> {
+            if (field.getStart() > 0) {
+                sum[0] += StringExtensions.toLong(field);
+            }
+        }));
+        assertThat(sum[0], is(35L));
+        Matcher matcher = StringExtensions.toPattern("count=(-?\\d+)").matcher(cs);
+        assertThat(matcher.find(), is(true));
+        assertThat(StringExtensions.toInt(cs.subSequence(matcher.start(1), matcher.end(1))), is(-7));
+    }
+}
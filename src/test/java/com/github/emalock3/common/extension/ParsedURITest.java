@@ -0,0 +1,75 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+public class ParsedURITest {
+
+    @Test
+    public void testParse() {
+        ParsedURI uri = ParsedURI.parse(new StringBuilder("http://user:pw@example.com:8080/a/b%20c?x=1&y=2#frag"));
+        assertThat(uri.getScheme(), is("http"));
+        assertThat(uri.getRawAuthority(), is("user:pw@example.com:8080"));
+        assertThat(uri.getRawUserInfo(), is("user:pw"));
+        assertThat(uri.getHost(), is("example.com"));
+        assertThat(uri.getPort(), is(8080));
+        assertThat(uri.getRawPath(), is("/a/b%20c"));
+        assertThat(uri.getRawQuery(), is("x=1&y=2"));
+        assertThat(uri.getRawFragment(), is("frag"));
+        assertThat(uri.isAbsolute(), is(true));
+    }
+
+    @Test
+    public void testParseMissingComponents() {
+        ParsedURI uri = ParsedURI.parse("/index.html");
+        assertThat(uri.getScheme(), is(nullValue()));
+        assertThat(uri.getRawAuthority(), is(nullValue()));
+        assertThat(uri.getHost(), is(nullValue()));
+        assertThat(uri.getPort(), is(-1));
+        assertThat(uri.getRawPath(), is("/index.html"));
+        assertThat(uri.getRawQuery(), is(nullValue()));
+        assertThat(uri.getRawFragment(), is(nullValue()));
+        assertThat(uri.isAbsolute(), is(false));
+        assertThat(ParsedURI.parse("http://example.com").getRawPath(), is(""));
+        assertThat(ParsedURI.parse("file:///tmp/x").getRawAuthority(), is(nullValue()));
+        assertThat(ParsedURI.parse("?").getRawQuery(), is(""));
+    }
+
+    @Test
+    public void testParseIPv6Host() {
+        ParsedURI uri = ParsedURI.parse("https://[2001:db8::1]:8443/p");
+        assertThat(uri.getHost(), is("[2001:db8::1]"));
+        assertThat(uri.getPort(), is(8443));
+        assertThat(ParsedURI.parse("https://[::1]/p").getPort(), is(-1));
+    }
+
+    @Test
+    public void testParseInvalidPort() {
+        assertThat(ParsedURI.parse("http://example.com:80a/").getPort(), is(-1));
+        assertThat(ParsedURI.parse("http://example.com:/").getPort(), is(-1));
+        assertThat(ParsedURI.parse("http://example.com:/").getHost(), is("example.com"));
+    }
+
+    @Test
+    public void testMatchesURI() {
+        String[] values = {"http://a.test:81/p/q?r=s#t", "https://u@[::1]/x", "//host/path", "urn:example:x#y"};
+        for (String value : values) {
+            ParsedURI parsed = ParsedURI.parse(value);
+            URI uri = parsed.toURI();
+            assertThat(parsed.getScheme(), is(uri.getScheme()));
+            assertThat(parsed.getHost(), is(uri.getHost()));
+            assertThat(parsed.getPort(), is(uri.getPort()));
+            assertThat(parsed.getRawFragment(), is(uri.getRawFragment()));
+            assertThat(parsed.toString(), is(value));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToURIInvalid() {
+        ParsedURI.parse("http://a b/").toURI();
+    }
+}
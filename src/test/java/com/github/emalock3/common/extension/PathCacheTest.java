@@ -0,0 +1,50 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+public class PathCacheTest {
+
+    @Test
+    public void testGet() {
+        PathCache cache = new PathCache(16);
+        Path path = cache.get("static/css/site.css");
+        assertThat(path, is(Paths.get("static/css/site.css")));
+        assertThat(cache.get(new StringBuilder("static/css/site.css")), is(sameInstance(path)));
+        assertThat(cache.size(), is(1));
+        cache.clear();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testResolve() {
+        PathCache cache = new PathCache(16);
+        Path resolved = cache.resolve("/srv/www", "index.html");
+        assertThat(resolved, is(Paths.get("/srv/www/index.html")));
+        assertThat(cache.resolve("/srv/www", new StringBuilder("index.html")), is(sameInstance(resolved)));
+        assertThat(cache.resolve(cache.get("/srv/www"), "index.html"), is(sameInstance(resolved)));
+        assertThat(cache.resolve("/srv/www", "img/logo.png"), is(Paths.get("/srv/www/img/logo.png")));
+        // the base is converted once and shared by both children
+        assertThat(cache.size(), is(3));
+    }
+
+    @Test
+    public void testMaxSize() {
+        PathCache cache = new PathCache(8);
+        for (int i = 0; i < 100; i++) {
+            cache.get("file" + i);
+        }
+        assertThat(cache.size(), is(lessThanOrEqualTo(8)));
+    }
+
+    @Test(expected = InvalidPathException.class)
+    public void testGetInvalid() {
+        new PathCache(8).get("a\u0000b");
+    }
+}
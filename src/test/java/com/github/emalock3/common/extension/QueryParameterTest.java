@@ -0,0 +1,50 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class QueryParameterTest {
+
+    @Test
+    public void testGetKeyAndValue() {
+        QueryParameter parameter = new QueryParameter(StringExtensions.DEFAULT_CHARSET_OPT)
+                .reset("x&a%20b=c+d%3D&y", 2, 7, 14);
+        assertThat(parameter.getKey(), is("a b"));
+        assertThat(parameter.getValue(), is("c d="));
+        assertThat(parameter.getValue(), is(sameInstance(parameter.getValue())));
+        assertThat(parameter.getRawKey().toString(), is("a%20b"));
+        assertThat(parameter.getRawValue().toString(), is("c+d%3D"));
+        assertThat(parameter.hasValue(), is(true));
+        assertThat(parameter.toString(), is("a%20b=c+d%3D"));
+    }
+
+    @Test
+    public void testWithoutValue() {
+        QueryParameter parameter = new QueryParameter(StringExtensions.DEFAULT_CHARSET_OPT).reset("flag", 0, 4, 4);
+        assertThat(parameter.getKey(), is("flag"));
+        assertThat(parameter.getValue(), is(""));
+        assertThat(parameter.getRawValue().toString(), is(""));
+        assertThat(parameter.hasValue(), is(false));
+    }
+
+    @Test
+    public void testDecodesOnlyWhatIsTouched() {
+        List<String> keys = new ArrayList<>();
+        StringExtensions.forEachQueryParameter("a=%ZZ&b=%E3%81%82", parameter -> keys.add(parameter.getKey()),
+                Optional.of(Charset.forName("UTF-8")));
+        assertThat(keys, is(Arrays.asList("a", "b")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetValueIllegalEscape() {
+        new QueryParameter(StringExtensions.DEFAULT_CHARSET_OPT).reset("a=%ZZ", 0, 1, 5).getValue();
+    }
+}
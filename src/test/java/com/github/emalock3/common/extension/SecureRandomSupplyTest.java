@@ -0,0 +1,66 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SecureRandomSupplyTest {
+
+    @Test
+    public void testNextBytes() {
+        SecureRandomSupply supply = SecureRandomSupply.of("SHA1PRNG");
+        assertThat(supply.getAlgorithm(), is("SHA1PRNG"));
+        byte[] bytes = new byte[32];
+        supply.nextBytes(bytes);
+        assertThat(bytes, is(not(new byte[32])));
+    }
+
+    @Test
+    public void testNextBytesRange() {
+        SecureRandomSupply supply = SecureRandomSupply.of("SHA1PRNG");
+        byte[] bytes = new byte[1024];
+        supply.nextBytes(bytes, 1, 1022);
+        assertThat(bytes[0], is((byte) 0));
+        assertThat(bytes[1023], is((byte) 0));
+        assertThat(Arrays.copyOfRange(bytes, 1, 1023), is(not(new byte[1022])));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testNextBytesRangeOutOfBounds() {
+        SecureRandomSupply.of("SHA1PRNG").nextBytes(new byte[4], 2, 3);
+    }
+
+    @Test
+    public void testNonceAndToken() {
+        SecureRandomSupply supply = SecureRandomSupply.of("SHA1PRNG");
+        assertThat(supply.nonce(16).length, is(16));
+        assertThat(supply.nonce(16), is(not(supply.nonce(16))));
+        String token = supply.token(24);
+        assertThat(token.length(), is(32));
+        assertThat(Base64.getUrlDecoder().decode(token).length, is(24));
+    }
+
+    @Test
+    public void testReseed() {
+        SecureRandomSupply supply = new SecureRandomSupply("SHA1PRNG", Optional.empty(), 3, 16, 1, TimeUnit.MINUTES);
+        byte[] first = supply.nonce(64);
+        assertThat(supply.nonce(64), is(not(first)));
+        supply.nextLong();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidStripes() {
+        new SecureRandomSupply("SHA1PRNG", Optional.empty(), 0, 16, 1, TimeUnit.MINUTES);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownAlgorithm() {
+        SecureRandomSupply.of("Unknown");
+    }
+}
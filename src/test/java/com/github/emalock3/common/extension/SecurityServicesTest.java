@@ -0,0 +1,55 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class SecurityServicesTest {
+
+    @Test
+    public void testGetProvider() {
+        assertThat(SecurityServices.getProvider("SUN"), is(Optional.of(Security.getProvider("SUN"))));
+        assertThat(SecurityServices.getProvider("SUN").get(), is(sameInstance(SecurityServices.getProvider("SUN").get())));
+        assertThat(SecurityServices.getProvider("Unknown"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testGetService() throws Exception {
+        Optional<Provider.Service> service = SecurityServices.getService("MessageDigest", "sha-256");
+        assertThat(service.isPresent(), is(true));
+        assertThat(service.get().getProvider(), is(MessageDigest.getInstance("SHA-256").getProvider()));
+        assertThat(SecurityServices.getService("MessageDigest", "SHA-256").get(), is(sameInstance(service.get())));
+        assertThat(SecurityServices.getService("MessageDigest", "Unknown"), is(Optional.empty()));
+    }
+
+    @Test
+    public void testGetServiceProvider() throws Exception {
+        assertThat(SecurityServices.getServiceProvider("KeyFactory", "RSA"),
+                is(Optional.of(KeyFactory.getInstance("RSA").getProvider())));
+    }
+
+    @Test
+    public void testClear() {
+        Provider provider = new Provider("SecurityServicesTest", 1.0, "test") {
+            private static final long serialVersionUID = 1L;
+        };
+        provider.put("MessageDigest.SecurityServicesTest", "sun.security.provider.SHA");
+        assertThat(SecurityServices.getService("MessageDigest", "SecurityServicesTest"), is(Optional.empty()));
+        Security.addProvider(provider);
+        try {
+            assertThat(SecurityServices.getService("MessageDigest", "SecurityServicesTest"), is(Optional.empty()));
+            SecurityServices.clear();
+            assertThat(SecurityServices.getServiceProvider("MessageDigest", "SecurityServicesTest"), is(Optional.of(provider)));
+        } finally {
+            Security.removeProvider(provider.getName());
+            SecurityServices.clear();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class SecurityWarmupTest {
+
+    @Test
+    public void testWarmUp() {
+        List<SecurityWarmup.Result> results = SecurityWarmup.warmUp(Arrays.asList(
+                "Cipher.AES/GCM/NoPadding", "Mac.HmacSHA256", "Signature.SHA256withECDSA", "MessageDigest.SHA-256"), 2);
+        assertThat(results.size(), is(4));
+        for (SecurityWarmup.Result result : results) {
+            assertThat(result.toString(), result.isSuccess(), is(true));
+            assertThat(result.getTotalNanos(), is(greaterThanOrEqualTo(result.getResolveNanos())));
+            assertThat(result.isExercised(), is(true));
+        }
+        assertThat(results.get(0).getType(), is("Cipher"));
+        assertThat(results.get(0).getAlgorithm(), is("AES/GCM/NoPadding"));
+        assertThat(results.get(3).getService(), is("MessageDigest.SHA-256"));
+    }
+
+    @Test
+    public void testWarmUpWithoutType() {
+        List<SecurityWarmup.Result> results = SecurityWarmup.warmUp(Arrays.asList("SHA-1", "HmacSHA1", "AES/CBC/PKCS5Padding"), 0);
+        assertThat(results.get(0).getType(), is("MessageDigest"));
+        assertThat(results.get(1).getType(), is("Mac"));
+        assertThat(results.get(2).getType(), is("Cipher"));
+        assertThat(results.get(2).isSuccess(), is(true));
+        assertThat(results.get(2).isExercised(), is(false));
+    }
+
+    @Test
+    public void testWarmUpWithoutKeyGenerator() {
+        List<SecurityWarmup.Result> results = SecurityWarmup.warmUp(Arrays.asList(
+                "Cipher.ChaCha20-Poly1305", "Cipher.PBEWithMD5AndDES", "Mac.PBEWithHmacSHA256"), 2);
+        for (SecurityWarmup.Result result : results) {
+            assertThat(result.toString(), result.isSuccess(), is(true));
+        }
+        assertThat(results.get(0).isExercised(), is(true));
+        assertThat(results.get(1).isExercised(), is(false));
+        assertThat(results.get(2).isExercised(), is(false));
+    }
+
+    @Test
+    public void testWarmUpUnknown() {
+        SecurityWarmup.Result result = SecurityWarmup.warmUp(Collections.singletonList("Mac.Unknown"), 1).get(0);
+        assertThat(result.isSuccess(), is(false));
+        assertThat(result.getError().get(), is(instanceOf(IllegalArgumentException.class)));
+    }
+
+    @Test
+    public void testWarmUpAsync() throws Exception {
+        List<SecurityWarmup.Result> results = SecurityWarmup.warmUpAsync(Collections.singletonList("MessageDigest.MD5"), 1)
+                .get(30, TimeUnit.SECONDS);
+        assertThat(results.get(0).isSuccess(), is(true));
+    }
+}
@@ -3,10 +3,14 @@ package com.github.emalock3.common.extension;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
+import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.InetAddress;
@@ -14,8 +18,16 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
 import java.net.UnknownHostException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Policy;
@@ -27,12 +39,22 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
 import lombok.experimental.ExtensionMethod;
 
 import org.junit.Test;
@@ -64,6 +86,38 @@ public class StringExtensionsTest {
         assertThat(((String) null).fmt(Optional.of(Locale.JAPAN)), is(nullValue()));
         assertThat("".fmt(Optional.of(Locale.US)), is(""));
         assertThat("%d %ta".fmt(Optional.of(Locale.US), Integer.valueOf(123), Date.from(LocalDate.parse("2014-03-11").atTime(LocalTime.MIN).toInstant(ZoneOffset.UTC))), is("123 Tue"));
+        assertThat("%.1f".fmt(Optional.of(Locale.GERMANY), Double.valueOf(1.25)), is("1,3"));
+    }
+
+    @Test
+    public void testFmtTo() {
+        StringBuilder sb = new StringBuilder();
+        assertThat(((String) null).fmtTo(sb, "a"), is(sameInstance(sb)));
+        assertThat("%s=".fmtTo(sb, "a"), is(sameInstance(sb)));
+        "%d,".fmtTo(sb, 1);
+        "%x,".fmtTo(sb, 255L);
+        "%.1f".fmtTo(sb, Optional.of(Locale.GERMANY), 1.25);
+        assertThat(sb.toString(), is("a=1,ff,1,3"));
+        CharBuffer buffer = "%s-%d".fmtTo(CharBuffer.allocate(8), Optional.of(Locale.US), "b", Integer.valueOf(2));
+        buffer.flip();
+        assertThat(buffer.toString(), is("b-2"));
+    }
+
+    @Test
+    public void testFmtToNarrowPrimitive() {
+        assertThat("%s".fmtTo(new StringBuilder(), 'c').toString(), is("c"));
+        assertThat("%x".fmtTo(new StringBuilder(), (byte) -1).toString(), is("ff"));
+        assertThat("%x".fmtTo(new StringBuilder(), (short) -1).toString(), is("ffff"));
+        assertThat("%s".fmtTo(new StringBuilder(), 1.1f).toString(), is("1.1"));
+        assertThat("%s".fmtTo(new StringBuilder(), Optional.of(Locale.US), 'c').toString(), is("c"));
+        assertThat("%x".fmtTo(new StringBuilder(), Optional.of(Locale.US), (byte) -1).toString(), is("ff"));
+    }
+
+    @Test
+    public void testFmtLazy() {
+        assertThat(((String) null).fmtLazy(), is(nullValue()));
+        assertThat("%s, %d".fmtLazy("hoge", Integer.valueOf(123)).toString(), is("hoge, 123"));
+        assertThat("%.1f".fmtLazy(Optional.of(Locale.GERMANY), Double.valueOf(1.25)).toString(), is("1,3"));
     }
 
     @Test
@@ -82,6 +136,31 @@ public class StringExtensionsTest {
         "".encodeURL(null);
     }
 
+    @Test
+    public void testEncodeURLCharSequenceMatchesURLEncoder() throws UnsupportedEncodingException {
+        Optional<Charset> sjis = Optional.of(Charset.forName("Shift_JIS"));
+        String[] values = {"abc-_.*XYZ09", "a b&c=d/e?f%", "\u3042\u3044 \u3046", "\uD83D\uDE00!", "x\uD83Dy\uDE00z", "\u00E9~"};
+        for (String value : values) {
+            assertThat(value.encodeURL(), is(URLEncoder.encode(value, "UTF-8")));
+            assertThat(new StringBuilder(value).encodeURL(), is(URLEncoder.encode(value, "UTF-8")));
+            assertThat(value.encodeURL(sjis), is(URLEncoder.encode(value, "Shift_JIS")));
+        }
+        String safe = "safe-value";
+        assertThat(safe.encodeURL(), is(sameInstance(safe)));
+    }
+
+    @Test
+    public void testEncodeURLToCharSequenceAppendable() {
+        StringBuilder sb = new StringBuilder("q=");
+        assertThat("\u3042 b".encodeURLTo(sb), is(sameInstance(sb)));
+        assertThat(sb.toString(), is("q=%E3%81%82+b"));
+        assertThat(((String) null).encodeURLTo(sb).toString(), is("q=%E3%81%82+b"));
+        sb.setLength(0);
+        assertThat("\u3042".encodeURLTo(sb, Optional.of(Charset.forName("Shift_JIS"))).toString(), is("%82%A0"));
+        sb.setLength(0);
+        assertThat("plain".encodeURLTo(sb).toString(), is("plain"));
+    }
+
     @Test
     public void testDecodeURLCharSequence() {
         assertThat(((String) null).decodeURL(), is(nullValue()));
@@ -113,6 +192,69 @@ public class StringExtensionsTest {
         }
     }
 
+    @Test
+    public void testDecodeURLCharSequenceMatchesURLDecoder() throws UnsupportedEncodingException {
+        Optional<Charset> sjis = Optional.of(Charset.forName("Shift_JIS"));
+        String[] values = {"abc", "a+b%26c%3Dd", "%E3%81%82%E3%81%84+x", "%F0%9F%98%80!", "%FF%41", "%82%A0"};
+        for (String value : values) {
+            assertThat(value.decodeURL(), is(URLDecoder.decode(value, "UTF-8")));
+            assertThat(new StringBuilder(value).decodeURL(), is(URLDecoder.decode(value, "UTF-8")));
+            assertThat(value.decodeURL(sjis), is(URLDecoder.decode(value, "Shift_JIS")));
+        }
+        String clean = "clean-value";
+        assertThat(clean.decodeURL(), is(sameInstance(clean)));
+    }
+
+    @Test
+    public void testDecodeURLCharSequenceIntIntCharset() {
+        Optional<Charset> utf8 = Optional.of(Charset.forName("UTF-8"));
+        assertThat(((String) null).decodeURL(0, 0, utf8), is(nullValue()));
+        assertThat("k=%E3%81%82+b&x".decodeURL(2, 13, utf8), is("\u3042 b"));
+        assertThat("k=v&x".decodeURL(2, 3, utf8), is("v"));
+        assertThat("k=v&x".decodeURL(3, 3, utf8), is(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeURLCharSequenceIllegalHex() {
+        "%4G".decodeURL();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeURLCharSequenceIncompleteEscape() {
+        "abc%4".decodeURL();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDecodeURLCharSequenceIntIntCharsetOutOfRange() {
+        "abc".decodeURL(1, 4, Optional.empty());
+    }
+
+    @Test
+    public void testForEachQueryParameterCharSequenceConsumer() {
+        List<String> pairs = new ArrayList<>();
+        "a=1&&b=%E3%81%82+x&c&=d&a=2".forEachQueryParameter(p -> pairs.add(p.getKey() + ":" + p.getValue()));
+        assertThat(pairs, is(Arrays.asList("a:1", "b:\u3042 x", "c:", ":d", "a:2")));
+        ((String) null).forEachQueryParameter(p -> fail());
+        "".forEachQueryParameter(p -> fail());
+    }
+
+    @Test
+    public void testParseQueryCharSequence() {
+        Map<String, List<String>> query = "a=1&b=x%3Dy&a=2&c".parseQuery();
+        assertThat(new ArrayList<>(query.keySet()), is(Arrays.asList("a", "b", "c")));
+        assertThat(query.get("a"), is(Arrays.asList("1", "2")));
+        assertThat(query.get("b"), is(Arrays.asList("x=y")));
+        assertThat(query.get("c"), is(Arrays.asList("")));
+        assertThat(((String) null).parseQuery(), is(nullValue()));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testParseQueryCharSequenceCharset() {
+        assertThat("k=%82%A0".parseQuery(Optional.of(Charset.forName("Shift_JIS"))).get("k"),
+                is(Arrays.asList("\u3042")));
+        "".parseQuery(null);
+    }
+
     @Test
     public void testToInputStreamCharSequence() throws IOException {
         assertThat(((String) null).toInputStream(), is(nullValue()));
@@ -129,6 +271,17 @@ public class StringExtensionsTest {
         "aaa".toInputStream(null);
     }
 
+    @Test
+    public void testToInputStreamLargeCharSequence() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() <= StringExtensions.STREAMING_THRESHOLD) {
+            sb.append("abcdefgh");
+        }
+        InputStream in = sb.toInputStream();
+        assertThat(in, is(instanceOf(CharSequenceInputStream.class)));
+        assertThat(readInputStream(in), is(sb.toString()));
+    }
+
     private String readerToString(Reader reader) throws IOException {
         StringBuilder sb = new StringBuilder();
         char[] cb = new char[1024];
@@ -145,6 +298,15 @@ public class StringExtensionsTest {
         assertThat(readerToString("hoge".toReader()), is("hoge"));
     }
 
+    @Test
+    public void testToReaderStringBuilder() throws IOException {
+        StringBuilder sb = new StringBuilder("hoge\u3042");
+        Reader reader = sb.toReader();
+        assertThat(reader, is(instanceOf(CharSequenceReader.class)));
+        assertThat(readerToString(reader), is("hoge\u3042"));
+        assertThat(readerToString(CharBuffer.wrap("fuga").toReader()), is("fuga"));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testToURL() throws MalformedURLException {
         assertThat(((String) null).toURL(), is(nullValue()));
@@ -159,6 +321,20 @@ public class StringExtensionsTest {
         ":".toURI();
     }
 
+    @Test
+    public void testToURICharSequenceURICache() {
+        URICache cache = new URICache(16);
+        assertThat(((String) null).toURI(cache), is(nullValue()));
+        assertThat("http://test.test/".toURI(cache), is(sameInstance("http://test.test/".toURI(cache))));
+    }
+
+    @Test
+    public void testToParsedURI() {
+        assertThat(((String) null).toParsedURI(), is(nullValue()));
+        assertThat("http://test.test:8080/p?q".toParsedURI().getPort(), is(8080));
+        assertThat(new StringBuilder("http://test.test/p?q").toParsedURI().getRawQuery(), is("q"));
+    }
+
     @Test
     public void testToFile() {
         assertThat(((String) null).toFile(), is(nullValue()));
@@ -169,6 +345,16 @@ public class StringExtensionsTest {
     public void testToPath() {
         assertThat(((String) null).toPath(), is(nullValue()));
         assertThat(".".toPath(), is(new File(".").toPath()));
+        assertThat("a//b/".toPath(), is(new File("a//b/").toPath()));
+        assertThat("".toPath(), is(new File("").toPath()));
+    }
+
+    @Test
+    public void testToPathCharSequencePathCache() {
+        PathCache cache = new PathCache(16);
+        assertThat(((String) null).toPath(cache), is(nullValue()));
+        assertThat("a/b".toPath(cache), is(new File("a/b").toPath()));
+        assertThat(new StringBuilder("a/b").toPath(cache), is(sameInstance("a/b".toPath(cache))));
     }
 
     @Test
@@ -421,6 +607,60 @@ public class StringExtensionsTest {
         assertThat("hoge".toByteBuffer(utf8).limit(), is(4));
     }
 
+    @Test
+    public void testToByteBufferStringBuilderCharset() {
+        Optional<Charset> sjis = Optional.of(Charset.forName("Shift_JIS"));
+        String value = "a\u3042\uD83D\uDE00b";
+        assertThat(new StringBuilder(value).toByteBuffer(), is(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8))));
+        assertThat(new StringBuilder(value).toByteBuffer(sjis), is(ByteBuffer.wrap(value.getBytes(Charset.forName("Shift_JIS")))));
+        assertThat(new StringBuilder().toByteBuffer().limit(), is(0));
+    }
+
+    @Test
+    public void testToByteBufferStringBuilderExactSize() {
+        assertThat(new StringBuilder("\u3042").toByteBuffer().array().length, is(3));
+        assertThat(new StringBuilder("a\u3042\uD83D\uDE00b").toByteBuffer().capacity(), is(9));
+        assertThat(new StringBuilder("hoge").toByteBuffer().array().length, is(4));
+        assertThat(new StringBuilder("a\u3042").toByteBuffer(Optional.of(Charset.forName("Shift_JIS"))).capacity(), is(3));
+    }
+
+    @Test
+    public void testToByteBufferCharSequenceIntByteBuffer() {
+        String value = "ab\u3042\uD83D\uDE00cd";
+        ByteBuffer dst = ByteBuffer.allocateDirect(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int index = 0;
+        int calls = 0;
+        do {
+            index = value.toByteBuffer(index, dst);
+            dst.flip();
+            while (dst.hasRemaining()) {
+                out.write(dst.get());
+            }
+            dst.clear();
+            calls++;
+        } while (index < value.length());
+        assertThat(out.toByteArray(), is(value.getBytes(StandardCharsets.UTF_8)));
+        assertThat(calls, is(4));
+        assertThat(((String) null).toByteBuffer(0, dst), is(0));
+    }
+
+    @Test
+    public void testToByteBufferCharSequenceIntByteBufferCharset() {
+        ByteBuffer dst = ByteBuffer.allocate(8);
+        dst.put((byte) 'x');
+        assertThat("\u00E9t\u00E9".toByteBuffer(1, dst, Optional.of(StandardCharsets.ISO_8859_1)), is(3));
+        assertThat(dst.position(), is(3));
+        assertThat(dst.get(1), is((byte) 't'));
+        assertThat(dst.get(2), is((byte) 0xE9));
+        assertThat("abc".toByteBuffer(3, dst, Optional.empty()), is(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testToByteBufferCharSequenceIntByteBufferOutOfRange() {
+        "abc".toByteBuffer(4, ByteBuffer.allocate(8));
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testToInetAddress() throws IllegalArgumentException, UnknownHostException {
         assertThat(((String) null).toInetAddress(), is(nullValue()));
@@ -428,6 +668,35 @@ public class StringExtensionsTest {
         "333.444.555.666".toInetAddress();
     }
 
+    @Test
+    public void testToInetAddressLiteral() throws UnknownHostException {
+        String[] literals = {"127.0.0.1", "255.255.255.255", "::1", "[::1]", "2001:db8::8a2e:370:7334", "::ffff:192.0.2.1", "::"};
+        for (String literal : literals) {
+            assertThat(literal.toInetAddress(), is(InetAddress.getByName(literal)));
+        }
+        assertThat(new StringBuilder("10.0.0.1").toInetAddress().getAddress(), is(new byte[] {10, 0, 0, 1}));
+    }
+
+    @Test
+    public void testToInetAddressAsync() throws Exception {
+        assertThat(((String) null).toInetAddressAsync().get(), is(nullValue()));
+        assertThat("127.0.0.1".toInetAddressAsync().get(), is(InetAddress.getByName("127.0.0.1")));
+        try (AsyncHostResolver resolver = AsyncHostResolver.of(
+                host -> new InetAddress[] {InetAddress.getByAddress(host, new byte[] {10, 1, 2, 3})}, 1)) {
+            assertThat("peer.test".toInetAddressAsync(resolver).get(10, TimeUnit.SECONDS).getAddress(),
+                    is(new byte[] {10, 1, 2, 3}));
+        }
+    }
+
+    @Test
+    public void testToInetAddressCharSequenceInetAddressCache() {
+        InetAddressCache cache = new InetAddressCache(host -> new InetAddress[] {InetAddress.getByAddress(host, new byte[] {10, 1, 2, 3})},
+                1, 1, TimeUnit.MINUTES, 16);
+        assertThat(((String) null).toInetAddress(cache), is(nullValue()));
+        assertThat("peer.test".toInetAddress(cache).getAddress(), is(new byte[] {10, 1, 2, 3}));
+        assertThat("peer.test".toInetAddress(cache), is(sameInstance("peer.test".toInetAddress(cache))));
+    }
+
     @Test(expected = DateTimeParseException.class)
     public void testToDateTimeCharSequence() {
         assertThat(((String) null).toLocalDateTime(), is(nullValue()));
@@ -490,6 +759,100 @@ public class StringExtensionsTest {
         assertThat("ENGLISH".toLocale(Optional.of("US"), Optional.of("")), is(new Locale("ENGLISH", "US", "")));
     }
 
+    @Test
+    public void testToLocaleCharSequenceVariantWithoutCountry() {
+        assertThat("ja".toLocale(Optional.empty(), Optional.of("JP")), is(new Locale("ja")));
+    }
+
+    @Test
+    public void testParseLocale() {
+        assertThat(((String) null).parseLocale(), is(nullValue()));
+        assertThat("en".parseLocale(), is(Locale.ENGLISH));
+        assertThat("en_US".parseLocale(), is(Locale.US));
+        assertThat("en-us".parseLocale(), is(Locale.US));
+        assertThat("es-419".parseLocale(), is(Locale.forLanguageTag("es-419")));
+        assertThat("zh-Hant-TW".parseLocale(), is(Locale.forLanguageTag("zh-Hant-TW")));
+        assertThat("ja_JP_u_ca_japanese".parseLocale(), is(Locale.forLanguageTag("ja-JP-u-ca-japanese")));
+        assertThat("*".parseLocale(), is(Locale.ROOT));
+        assertThat("en-US-!!".parseLocale(), is(Locale.US));
+        assertThat("!!".parseLocale(), is(Locale.ROOT));
+        assertThat(new StringBuilder("en-US").parseLocale(), is(sameInstance("en-US".parseLocale())));
+    }
+
+    @Test
+    public void testParseAcceptLanguage() {
+        assertThat(((String) null).parseAcceptLanguage(), is(nullValue()));
+        assertThat("".parseAcceptLanguage().isEmpty(), is(true));
+        List<WeightedLocale> locales = "de;q=0.7, fr-CH, fr;q=0.9, en;q=0.9,*;q=0.5 , xx;q=0, yy;q=0.x"
+                .parseAcceptLanguage();
+        assertThat(locales.size(), is(5));
+        assertThat(locales.get(0).getLocale(), is(Locale.forLanguageTag("fr-CH")));
+        assertThat(locales.get(0).getWeight(), is(1.0));
+        assertThat(locales.get(1).getLocale(), is(Locale.FRENCH));
+        assertThat(locales.get(2).getLocale(), is(Locale.ENGLISH));
+        assertThat(locales.get(2).getWeight(), is(0.9));
+        assertThat(locales.get(3).getLocale(), is(Locale.GERMAN));
+        assertThat(locales.get(4).getLocale(), is(Locale.ROOT));
+        assertThat(locales.get(4).getWeight(), is(0.5));
+    }
+
+    @Test
+    public void testForEachField() {
+        List<String> fields = new ArrayList<>();
+        ((String) null).forEachField(',', field -> fields.add(field.toString()));
+        assertThat(fields.isEmpty(), is(true));
+        "a,,b,".forEachField(',', field -> fields.add(field.toString()));
+        assertThat(fields, is(Arrays.asList("a", "", "b", "")));
+        fields.clear();
+        new StringBuilder("a::b:::c").forEachField("::", field -> fields.add(field.toString()));
+        assertThat(fields, is(Arrays.asList("a", "b", ":c")));
+    }
+
+    @Test
+    public void testForEachFieldToInt() {
+        List<Integer> values = new ArrayList<>();
+        "1,-22,+333,2147483647".forEachField(',', field -> values.add(Integer.valueOf(StringExtensions.toInt(field))));
+        assertThat(values, is(Arrays.asList(1, -22, 333, Integer.MAX_VALUE)));
+        long[] sum = new long[1];
+        "ff;-80000000".forEachField(";", field -> sum[0] += StringExtensions.toLong(field, 16));
+        assertThat(sum[0], is(0xffL - 0x80000000L));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testToIntCharSliceOverflow() {
+        new CharSlice("x2147483648", 1, 11).toInt();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForEachFieldEmptyDelimiter() {
+        "a".forEachField("", field -> {});
+    }
+
+    @Test
+    public void testForEachCsvField() {
+        List<String> fields = new ArrayList<>();
+        "a,\"b,\"\"c\"\"\",\"\",d\"e,".forEachCsvField(field -> fields.add(field.toString()));
+        assertThat(fields, is(Arrays.asList("a", "b,\"c\"", "", "d\"e", "")));
+        fields.clear();
+        "\"x\ny\";z".forEachCsvField(';', field -> fields.add(field.toString()));
+        assertThat(fields, is(Arrays.asList("x\ny", "z")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testForEachCsvFieldUnclosed() {
+        "a,\"b".forEachCsvField(field -> {});
+    }
+
+    @Test
+    public void testSplitOffsets() {
+        int[] offsets = new int[4];
+        assertThat(((String) null).splitOffsets(',', offsets), is(0));
+        assertThat("1,22,333".splitOffsets(',', offsets), is(3));
+        assertThat(offsets, is(new int[] { 0, 1, 2, 4 }));
+        assertThat("1--22".splitOffsets("--", offsets), is(2));
+        assertThat(offsets, is(new int[] { 0, 1, 3, 5 }));
+    }
+
     @Test
     public void testToTimeZone() {
         assertThat(((String) null).toTimeZone(), is(nullValue()));
@@ -529,6 +892,25 @@ public class StringExtensionsTest {
         assertThat(((String) null).toKeyStore(Optional.empty()), is(nullValue()));
     }
 
+    @Test
+    public void testLoadKeyStoreCharSequence() throws Exception {
+        assertThat(((String) null).loadKeyStore("PKCS12", null), is(nullValue()));
+        File file = File.createTempFile("StringExtensionsTest", ".p12");
+        try {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(null, null);
+            try (OutputStream out = new FileOutputStream(file)) {
+                keyStore.store(out, "changeit".toCharArray());
+            }
+            KeyStore loaded = file.getPath().loadKeyStore("PKCS12", "changeit".toCharArray());
+            assertThat(loaded.size(), is(0));
+            assertThat(file.getPath().loadKeyStore("PKCS12", "changeit".toCharArray()), is(sameInstance(loaded)));
+        } finally {
+            KeyStoreCache.clear();
+            file.delete();
+        }
+    }
+
     @Test
     public void testToSignatureCharSequence() {
         assertThat(((String) null).toSignature(), is(nullValue()));
@@ -593,6 +975,27 @@ public class StringExtensionsTest {
     public void testToCharset() {
         assertThat(((String) null).toCharset(), is(nullValue()));
         assertThat("UTF-8".toCharset(), is(Charset.forName("UTF-8")));
+        assertThat("sjis".toCharset(), is(sameInstance(new StringBuilder("sjis").toCharset())));
+        assertThat("sjis".toCharset(), is(Charset.forName("Shift_JIS")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testToCharsetUnsupported() {
+        "x-unknown-charset".toCharset();
+    }
+
+    @Test
+    public void testCharsetMethodsAlternatingCharsets() throws IOException {
+        Optional<Charset> sjis = Optional.of(Charset.forName("Shift_JIS"));
+        Optional<Charset> eucjp = Optional.of(Charset.forName("EUC-JP"));
+        StringBuilder value = new StringBuilder("\u3042\u3044");
+        for (int i = 0; i < 3; i++) {
+            assertThat(value.toByteBuffer(sjis), is(ByteBuffer.wrap(value.toString().getBytes(sjis.get()))));
+            assertThat(value.toByteBuffer(eucjp), is(ByteBuffer.wrap(value.toString().getBytes(eucjp.get()))));
+            assertThat(value.encodeURL(sjis).decodeURL(sjis), is(value.toString()));
+            assertThat(value.encodeURL(eucjp).decodeURL(eucjp), is(value.toString()));
+        }
+        assertThat(value.toInputStream(sjis).read(), is(0x82));
     }
 
     @Test
@@ -605,6 +1008,46 @@ public class StringExtensionsTest {
         assertThat(((String) null).toCipher(Optional.empty()), is(nullValue()));
     }
 
+    private static Cipher newAESCipher(int opmode) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        cipher.init(opmode, new SecretKeySpec(new byte[16], "AES"), new IvParameterSpec(new byte[16]));
+        return cipher;
+    }
+
+    @Test
+    public void testEncryptCharSequenceCipherByteBuffer() throws Exception {
+        Cipher cipher = newAESCipher(Cipher.ENCRYPT_MODE);
+        ByteBuffer out = ByteBuffer.allocateDirect(64);
+        assertThat(((String) null).encrypt(cipher, out), is(0));
+        assertThat("hoge".encrypt(cipher, out), is(16));
+        out.flip();
+        byte[] encrypted = new byte[out.remaining()];
+        out.get(encrypted);
+        assertThat(new String(newAESCipher(Cipher.DECRYPT_MODE).doFinal(encrypted), UTF8), is("hoge"));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testEncryptCharSequenceCipherByteBufferOverflow() throws Exception {
+        ByteBuffer out = ByteBuffer.allocate(8);
+        try {
+            "hoge".encrypt(newAESCipher(Cipher.ENCRYPT_MODE), out);
+        } finally {
+            assertThat(out.position(), is(0));
+        }
+    }
+
+    @Test
+    public void testEncryptCharSequenceCipherWritableByteChannel() throws Exception {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            large.append("\u3042").append(i);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(((String) null).encrypt(newAESCipher(Cipher.ENCRYPT_MODE), Channels.newChannel(out)), is(0L));
+        assertThat(large.encrypt(newAESCipher(Cipher.ENCRYPT_MODE), Channels.newChannel(out)), is((long) out.size()));
+        assertThat(new String(newAESCipher(Cipher.DECRYPT_MODE).doFinal(out.toByteArray()), UTF8), is(large.toString()));
+    }
+
     @Test
     public void testToKeyAgreementCharSequenceParameters() {
         assertThat(((String) null).toKeyAgreement(), is(nullValue()));
@@ -635,6 +1078,27 @@ public class StringExtensionsTest {
         assertThat(((String) null).toMAC(Optional.empty()), is(nullValue()));
     }
 
+    @Test
+    public void testHmacCharSequenceCharSequenceBytes() throws Exception {
+        byte[] key = "secret".getBytes(UTF8);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        assertThat(((String) null).hmac("HmacSHA256", key), is(nullValue()));
+        assertThat("hoge".hmac("HmacSHA256", key), is(mac.doFinal("hoge".getBytes(UTF8))));
+        assertThat(new StringBuilder("\u3042hoge").hmac("HmacSHA256", key), is(mac.doFinal("\u3042hoge".getBytes(UTF8))));
+    }
+
+    @Test
+    public void testHmacCharSequenceKeyedMac() throws Exception {
+        byte[] key = "secret".getBytes(UTF8);
+        Mac mac = Mac.getInstance("HmacSHA1");
+        mac.init(new SecretKeySpec(key, "HmacSHA1"));
+        KeyedMac keyedMac = KeyedMac.of("HmacSHA1", key);
+        assertThat(((String) null).hmac(keyedMac), is(nullValue()));
+        assertThat("".hmac(keyedMac), is(mac.doFinal(new byte[0])));
+        assertThat("hoge".hmac(keyedMac), is(mac.doFinal("hoge".getBytes(UTF8))));
+    }
+
     @Test
     public void testToSecretKeyFactoryCharSequenceParameters() {
         assertThat(((String) null).toSecretKeyFactory(), is(nullValue()));
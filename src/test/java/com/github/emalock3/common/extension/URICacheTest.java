@@ -0,0 +1,42 @@
+package com.github.emalock3.common.extension;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.URI;
+
+import org.junit.Test;
+
+public class URICacheTest {
+
+    @Test
+    public void testGet() {
+        URICache cache = new URICache(16);
+        URI uri = cache.get("http://example.com/a?b");
+        assertThat(uri, is(URI.create("http://example.com/a?b")));
+        assertThat(cache.get(new StringBuilder("http://example.com/a?b")), is(sameInstance(uri)));
+        assertThat(cache.size(), is(1));
+        cache.clear();
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void testMaxSize() {
+        URICache cache = new URICache(8);
+        for (int i = 0; i < 100; i++) {
+            cache.get("http://example.com/" + i);
+        }
+        assertThat(cache.size(), is(lessThanOrEqualTo(8)));
+    }
+
+    @Test
+    public void testInvalidIsNotCached() {
+        URICache cache = new URICache(8);
+        try {
+            cache.get("http://a b/");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(cache.size(), is(0));
+        }
+    }
+}